@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+#
+# Measures the time from launching the JVM until the first successful request, for
+#   baseline  the executable jar with the default configuration
+#   prod      the executable jar with the prod profile (springdoc disabled)
+#   aot-cds   the extracted application with the prod profile, Spring AOT and the AppCDS archive
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Environment: PORT (default 18080), JAVA (default java), BUILD=1 to rebuild with mvn -Paot package first
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+JAVA="${JAVA:-java}"
+URL="http://localhost:${PORT}/api/v1/categories"
+JAR="target/libraryrestapi-0.0.1-SNAPSHOT.jar"
+APP_DIR="target/app"
+
+if [[ "${BUILD:-0}" == "1" || ! -f "${APP_DIR}/application.jsa" ]]; then
+  mvn -B -q -Paot package -DskipTests
+fi
+
+# Prints the milliseconds until the first successful request to the application started by the given command.
+time_to_first_request() {
+  local start end pid
+  start=$(date +%s%N)
+  "$@" --server.port="${PORT}" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "${URL}"; do
+    if ! kill -0 "${pid}" 2> /dev/null; then
+      echo "Application exited before serving a request: $*" >&2
+      return 1
+    fi
+    sleep 0.01
+  done
+  end=$(date +%s%N)
+  kill "${pid}"
+  wait "${pid}" 2> /dev/null || true
+  echo $(((end - start) / 1000000))
+}
+
+# Runs the given command RUNS times and prints the minimum, median and maximum time to the first request.
+benchmark() {
+  local name=$1
+  shift
+  local times=()
+  for ((i = 0; i < RUNS; i++)); do
+    times+=("$(time_to_first_request "$@")")
+  done
+  mapfile -t times < <(printf '%s\n' "${times[@]}" | sort -n)
+  printf '%-10s min %6d ms   median %6d ms   max %6d ms\n' \
+    "${name}" "${times[0]}" "${times[$((RUNS / 2))]}" "${times[$((RUNS - 1))]}"
+}
+
+echo "Time to first successful request of ${URL}, ${RUNS} runs each"
+benchmark baseline "${JAVA}" -jar "${JAR}"
+benchmark prod "${JAVA}" -jar "${JAR}" --spring.profiles.active=prod
+benchmark aot-cds "${JAVA}" -XX:SharedArchiveFile="${APP_DIR}/application.jsa" -Dspring.aot.enabled=true \
+  -jar "${APP_DIR}/libraryrestapi-0.0.1-SNAPSHOT.jar" --spring.profiles.active=prod
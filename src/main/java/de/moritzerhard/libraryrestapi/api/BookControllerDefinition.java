@@ -1,7 +1,11 @@
 package de.moritzerhard.libraryrestapi.api;
 
+import de.moritzerhard.libraryrestapi.dto.request.BookFilterRequest;
 import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.dto.response.BookPageResponse;
 import de.moritzerhard.libraryrestapi.dto.response.BookResponse;
+import de.moritzerhard.libraryrestapi.dto.response.BulkBookResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CursorPageResponse;
 import de.moritzerhard.libraryrestapi.utils.RestConstants;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,6 +13,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +23,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Defines the REST API endpoints for managing books.
@@ -48,30 +56,111 @@ public interface BookControllerDefinition {
   ResponseEntity<BookResponse> createBook(@RequestBody BookRequest bookRequest);
 
   /**
-   * Retrieves all available books.
+   * Creates many books at once.
    *
-   * @return a {@link ResponseEntity} containing a list of {@link BookResponse} objects
+   * @param bookRequests the books to create
+   * @return a {@link ResponseEntity} containing a {@link BulkBookResponse} with the created books and rejected items
    */
-  @Operation(summary = "Get all books", description = "Returns a list of all books. Accessible to anonymous users.")
-  @ApiResponse(responseCode = "200", description = "List of books returned successfully")
+  @Operation(
+      summary = "Create books in bulk",
+      description = "Creates all valid books of the array in JDBC batches. Invalid items are reported by their "
+          + "zero-based index and do not prevent the other books from being created. Requires authentication.",
+      requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+          required = true,
+          description = "Array of books to be created"
+      )
+  )
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Bulk request processed, see created books and errors"),
+      @ApiResponse(responseCode = "400", description = "Empty or too large bulk request"),
+      @ApiResponse(responseCode = "401", description = "Unauthorized access")
+  })
+  @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  ResponseEntity<BulkBookResponse> createBooks(@RequestBody List<BookRequest> bookRequests);
+
+  /**
+   * Retrieves one page of the books matching the filter, ordered by ID, together with facet counts.
+   *
+   * @param filter the optional filter criteria
+   * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+   * @param limit  the maximum number of books on the page, or {@code null} for the default page size
+   * @return a {@link ResponseEntity} containing a {@link BookPageResponse} with the books and facet counts
+   */
+  @Operation(summary = "Get all books",
+      description = "Returns a page of books ordered by ID, optionally filtered by category, publishing years, "
+          + "author and publisher, together with the number of matching books per category, decade and top author. "
+          + "Follow the returned cursor to fetch the next page. Supports conditional requests with If-None-Match. "
+          + "Accessible to anonymous users.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Page of books returned successfully"),
+      @ApiResponse(responseCode = "304", description = "Page not modified since the given ETag"),
+      @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+  })
   @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-  ResponseEntity<List<BookResponse>> getAllBooks();
+  ResponseEntity<BookPageResponse> getAllBooks(
+      @ParameterObject BookFilterRequest filter,
+      @Parameter(description = "Cursor of the next page as returned by the previous page")
+      @RequestParam(required = false) String cursor,
+      @Parameter(description = "Maximum number of books on the page (capped by the server)")
+      @RequestParam(required = false) Integer limit);
+
+  /**
+   * Searches books by title, author and publisher.
+   *
+   * @param q      the search terms
+   * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+   * @param limit  the maximum number of books on the page, or {@code null} for the default page size
+   * @return a {@link ResponseEntity} containing a {@link CursorPageResponse} of matching {@link BookResponse} objects
+   */
+  @Operation(summary = "Search books",
+      description = "Full-text search over title, author and publisher. Returns a page of books ranked by relevance. "
+          + "Accessible to anonymous users.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Page of matching books returned successfully"),
+      @ApiResponse(responseCode = "400", description = "Blank query, invalid cursor or page size")
+  })
+  @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+  ResponseEntity<CursorPageResponse<BookResponse>> searchBooks(
+      @Parameter(description = "Search terms", required = true)
+      @RequestParam String q,
+      @Parameter(description = "Cursor of the next page as returned by the previous page")
+      @RequestParam(required = false) String cursor,
+      @Parameter(description = "Maximum number of books on the page (capped by the server)")
+      @RequestParam(required = false) Integer limit);
+
+  /**
+   * Exports the full book catalog as newline-delimited JSON.
+   *
+   * @param webRequest the current request, used to extend its async timeout
+   * @return a {@link ResponseEntity} streaming one {@link BookResponse} JSON object per line
+   */
+  @Operation(summary = "Export all books",
+      description = "Streams the full book catalog as newline-delimited JSON (one book per line), ordered by ID. "
+          + "Accessible to anonymous users.")
+  @ApiResponse(responseCode = "200", description = "Book catalog streamed successfully")
+  @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  ResponseEntity<StreamingResponseBody> exportBooks(WebRequest webRequest);
 
   /**
    * Retrieves a specific book by its ID.
    *
-   * @param id the ID of the book to retrieve
-   * @return a {@link ResponseEntity} containing the {@link BookResponse} if found
+   * @param id         the ID of the book to retrieve
+   * @param webRequest the current request, used to evaluate If-None-Match
+   * @return a {@link ResponseEntity} containing the {@link BookResponse} if found,
+   *     or {@code null} if the response has been answered with 304 Not Modified
    */
-  @Operation(summary = "Get book by ID")
+  @Operation(summary = "Get book by ID",
+      description = "Returns a book with a strong ETag. Supports conditional requests with If-None-Match.")
   @ApiResponses({
       @ApiResponse(responseCode = "200", description = "Book found"),
+      @ApiResponse(responseCode = "304", description = "Book not modified since the given ETag"),
       @ApiResponse(responseCode = "404", description = "Book not found")
   })
   @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   ResponseEntity<BookResponse> getBookById(
       @Parameter(description = "ID of the book to retrieve", required = true)
-      @PathVariable Long id);
+      @PathVariable Long id,
+      WebRequest webRequest);
 
   /**
    * Updates the information of an existing book.
@@ -109,7 +198,8 @@ public interface BookControllerDefinition {
   @ApiResponses({
       @ApiResponse(responseCode = "204", description = "Book deleted successfully"),
       @ApiResponse(responseCode = "401", description = "Unauthorized"),
-      @ApiResponse(responseCode = "404", description = "Book not found")
+      @ApiResponse(responseCode = "404", description = "Book not found"),
+      @ApiResponse(responseCode = "409", description = "A copy of the book is on loan")
   })
   @DeleteMapping("/{id}")
   ResponseEntity<Void> deleteBook(
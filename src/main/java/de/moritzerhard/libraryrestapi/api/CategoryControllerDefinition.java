@@ -2,13 +2,13 @@ package de.moritzerhard.libraryrestapi.api;
 
 import de.moritzerhard.libraryrestapi.dto.request.CategoryRequest;
 import de.moritzerhard.libraryrestapi.dto.response.CategoryResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CursorPageResponse;
 import de.moritzerhard.libraryrestapi.utils.RestConstants;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.util.List;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +18,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Defines the REST API endpoints for managing book categories.
@@ -47,29 +49,46 @@ public interface CategoryControllerDefinition {
   ResponseEntity<CategoryResponse> createCategory(@RequestBody CategoryRequest categoryRequest);
 
   /**
-   * Retrieves all available categories.
+   * Retrieves one page of categories, ordered by ID.
    *
-   * @return a {@link ResponseEntity} containing a list of {@link CategoryResponse} objects
+   * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+   * @param limit  the maximum number of categories on the page, or {@code null} for the default page size
+   * @return a {@link ResponseEntity} containing a {@link CursorPageResponse} of {@link CategoryResponse} objects
    */
-  @Operation(summary = "Get all categories", description = "Returns a list of all categories.")
-  @ApiResponse(responseCode = "200", description = "List of categories returned successfully")
+  @Operation(summary = "Get all categories",
+      description = "Returns a page of categories ordered by ID. Follow the returned cursor to fetch the next page. "
+          + "Supports conditional requests with If-None-Match.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Page of categories returned successfully"),
+      @ApiResponse(responseCode = "304", description = "Page not modified since the given ETag"),
+      @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+  })
   @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-  ResponseEntity<List<CategoryResponse>> getAllCategories();
+  ResponseEntity<CursorPageResponse<CategoryResponse>> getAllCategories(
+      @Parameter(description = "Cursor of the next page as returned by the previous page")
+      @RequestParam(required = false) String cursor,
+      @Parameter(description = "Maximum number of categories on the page (capped by the server)")
+      @RequestParam(required = false) Integer limit);
 
   /**
    * Retrieves a category by its ID.
    *
-   * @param id the ID of the category to retrieve
-   * @return a {@link ResponseEntity} containing the {@link CategoryResponse} if found
+   * @param id         the ID of the category to retrieve
+   * @param webRequest the current request, used to evaluate If-None-Match
+   * @return a {@link ResponseEntity} containing the {@link CategoryResponse} if found,
+   *     or {@code null} if the response has been answered with 304 Not Modified
    */
-  @Operation(summary = "Get category by ID")
+  @Operation(summary = "Get category by ID",
+      description = "Returns a category with a strong ETag. Supports conditional requests with If-None-Match.")
   @ApiResponses({
       @ApiResponse(responseCode = "200", description = "Category found"),
+      @ApiResponse(responseCode = "304", description = "Category not modified since the given ETag"),
       @ApiResponse(responseCode = "404", description = "Category not found")
   })
   @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   ResponseEntity<CategoryResponse> getCategoryById(@Parameter(description = "ID of the category to retrieve", required = true)
-                                                   @PathVariable Long id);
+                                                   @PathVariable Long id,
+                                                   WebRequest webRequest);
 
   /**
    * Updates an existing category.
@@ -106,7 +125,8 @@ public interface CategoryControllerDefinition {
   @ApiResponses({
       @ApiResponse(responseCode = "204", description = "Category deleted successfully"),
       @ApiResponse(responseCode = "401", description = "Unauthorized"),
-      @ApiResponse(responseCode = "404", description = "Category not found")
+      @ApiResponse(responseCode = "404", description = "Category not found"),
+      @ApiResponse(responseCode = "409", description = "A copy of a book of the category is on loan")
   })
   @DeleteMapping("/{id}")
   ResponseEntity<Void> deleteCategory(@Parameter(description = "ID of the category to delete", required = true) @PathVariable Long id);
@@ -102,7 +102,8 @@ public interface CustomerControllerDefinition {
   @ApiResponses({
       @ApiResponse(responseCode = "204", description = "Customer deleted successfully"),
       @ApiResponse(responseCode = "401", description = "Unauthorized – JWT token missing or invalid"),
-      @ApiResponse(responseCode = "404", description = "Customer not found")
+      @ApiResponse(responseCode = "404", description = "Customer not found"),
+      @ApiResponse(responseCode = "409", description = "The customer has books on loan")
   })
   @DeleteMapping("/{id}")
   ResponseEntity<Void> deleteCustomer(
@@ -0,0 +1,100 @@
+package de.moritzerhard.libraryrestapi.api;
+
+import de.moritzerhard.libraryrestapi.dto.request.LoanRequest;
+import de.moritzerhard.libraryrestapi.dto.response.LoanResponse;
+import de.moritzerhard.libraryrestapi.utils.RestConstants;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+/**
+ * Defines the REST API endpoints for checking out and returning books.
+ */
+@Tag(name = "Loans", description = "Endpoints for checking out and returning books (authentication required)")
+@RequestMapping(RestConstants.LOANS)
+public interface LoanControllerDefinition {
+  /**
+   * Checks out a copy of a book to the authenticated customer (requires authentication).
+   *
+   * @param loanRequest the id of the book
+   * @param principal   the token of the authenticated customer
+   * @return a {@link ResponseEntity} containing the created {@link LoanResponse}
+   */
+  @Operation(
+      summary = "Check out a book",
+      description = "Lends one available copy of the book to the authenticated customer. Requires JWT authentication.",
+      security = @SecurityRequirement(name = "bearerAuth"),
+      requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+          required = true,
+          description = "Book of the loan"
+      ))
+  @ApiResponses({
+      @ApiResponse(responseCode = "201", description = "Book checked out successfully"),
+      @ApiResponse(responseCode = "400", description = "Book missing"),
+      @ApiResponse(responseCode = "401", description = "Unauthorized access"),
+      @ApiResponse(responseCode = "404", description = "Book or customer not found"),
+      @ApiResponse(responseCode = "409", description = "No copy of the book is available")
+  })
+  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  ResponseEntity<LoanResponse> checkoutBook(@RequestBody LoanRequest loanRequest,
+                                            @Parameter(hidden = true) @AuthenticationPrincipal Jwt principal);
+
+  /**
+   * Retrieves a loan of the authenticated customer by its ID (requires authentication).
+   *
+   * @param id        the ID of the loan to retrieve
+   * @param principal the token of the authenticated customer
+   * @return a {@link ResponseEntity} containing the {@link LoanResponse}
+   */
+  @Operation(
+      summary = "Get loan by ID",
+      description = "Requires JWT authentication.",
+      security = @SecurityRequirement(name = "bearerAuth")
+  )
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Loan found"),
+      @ApiResponse(responseCode = "401", description = "Unauthorized access"),
+      @ApiResponse(responseCode = "403", description = "Loan of another customer"),
+      @ApiResponse(responseCode = "404", description = "Loan not found")
+  })
+  @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  ResponseEntity<LoanResponse> getLoanById(@Parameter(description = "ID of the loan to retrieve", required = true)
+                                           @PathVariable Long id,
+                                           @Parameter(hidden = true) @AuthenticationPrincipal Jwt principal);
+
+  /**
+   * Returns the copy of a loan of the authenticated customer (requires authentication).
+   *
+   * @param id        the ID of the loan to return
+   * @param principal the token of the authenticated customer
+   * @return a {@link ResponseEntity} containing the returned {@link LoanResponse}
+   */
+  @Operation(
+      summary = "Return a book",
+      description = "Ends the loan and makes the copy available again. Requires JWT authentication.",
+      security = @SecurityRequirement(name = "bearerAuth")
+  )
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Book returned successfully"),
+      @ApiResponse(responseCode = "401", description = "Unauthorized access"),
+      @ApiResponse(responseCode = "403", description = "Loan of another customer"),
+      @ApiResponse(responseCode = "404", description = "Loan not found"),
+      @ApiResponse(responseCode = "409", description = "Loan already returned")
+  })
+  @PostMapping(path = "/{id}/return", produces = MediaType.APPLICATION_JSON_VALUE)
+  ResponseEntity<LoanResponse> returnBook(@Parameter(description = "ID of the loan to return", required = true)
+                                          @PathVariable Long id,
+                                          @Parameter(hidden = true) @AuthenticationPrincipal Jwt principal);
+}
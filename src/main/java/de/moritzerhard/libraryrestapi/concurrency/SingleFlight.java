@@ -0,0 +1,20 @@
+package de.moritzerhard.libraryrestapi.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read method whose concurrent calls with equal arguments share a single invocation: the first call
+ * runs the method, the others wait for and return its result or rethrow its exception.
+ * Only for methods without side effects whose arguments implement {@code equals} and {@code hashCode}.
+ *
+ * @see SingleFlightAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+}
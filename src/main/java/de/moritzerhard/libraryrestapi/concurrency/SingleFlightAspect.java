@@ -0,0 +1,92 @@
+package de.moritzerhard.libraryrestapi.concurrency;
+
+import de.moritzerhard.libraryrestapi.exception.ServiceUnavailableException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Coalesces concurrent calls of {@link SingleFlight} methods with equal arguments, so that a burst of identical
+ * reads, e.g. for a suddenly popular book, causes a single database query instead of one per request.
+ * <p>
+ * The aspect runs inside the caching advice and outside the transaction advice: cache hits are served without
+ * coalescing, and waiting callers hold no transaction or connection. Callers that already run in a transaction
+ * are never coalesced, as they may see uncommitted changes of their own. Waiting callers give up after the
+ * timeout with a {@link ServiceUnavailableException}; the shared call itself continues.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class SingleFlightAspect {
+  private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+  private final Duration timeout;
+
+  public SingleFlightAspect(@Value("${single-flight.timeout:5s}") Duration timeout) {
+    this.timeout = timeout;
+  }
+
+  /**
+   * Runs the call, or waits for an identical call that is already running and returns its outcome.
+   *
+   * @param joinPoint the intercepted call
+   * @return the result of the shared call
+   * @throws Throwable the exception thrown by the shared call
+   */
+  @Around("@annotation(de.moritzerhard.libraryrestapi.concurrency.SingleFlight)")
+  public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return joinPoint.proceed();
+    }
+    Key key = new Key(((MethodSignature) joinPoint.getSignature()).getMethod(), Arrays.asList(joinPoint.getArgs()));
+    CompletableFuture<Object> call = new CompletableFuture<>();
+    CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+    if (running != null) {
+      return await(running, key);
+    }
+    try {
+      Object result = joinPoint.proceed();
+      call.complete(result);
+      return result;
+    } catch (Throwable e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  private Object await(CompletableFuture<Object> running, Key key) throws Throwable {
+    try {
+      return running.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    } catch (TimeoutException e) {
+      throw new ServiceUnavailableException("Timed out waiting for " + key.method().getName(), timeout);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException("Interrupted waiting for " + key.method().getName(), timeout);
+    }
+  }
+
+  /**
+   * Identity of a call: the method and its arguments, which may include {@code null}.
+   */
+  private record Key(Method method, List<Object> args) {
+  }
+}
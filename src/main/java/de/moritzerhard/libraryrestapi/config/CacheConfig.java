@@ -0,0 +1,74 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.moritzerhard.libraryrestapi.mapper.BookMapper;
+import de.moritzerhard.libraryrestapi.mapper.CategoryMapper;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
+import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
+import java.util.List;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration of the in-process caches for single book and category lookups.
+ * The caches are bounded Caffeine caches, which evict with the W-TinyLFU policy and record
+ * hit, miss and eviction statistics that are published as cache metrics by Actuator.
+ * The caching advice runs outside the transaction advice, so cache hits do not open a transaction and
+ * cache updates of write methods only happen once the transaction has committed. Between the two runs the
+ * single-flight advice, which coalesces concurrent cache misses.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 2)
+public class CacheConfig {
+  /**
+   * Cache of {@code BookResponse} objects by book ID.
+   */
+  public static final String BOOKS = "books";
+
+  /**
+   * Cache of {@code CategoryResponse} objects by category ID.
+   */
+  public static final String CATEGORIES = "categories";
+
+  /**
+   * Defines the cache manager holding the book and category caches.
+   * If a refresh interval is configured, the caches reload entries with the given loaders in the background
+   * and keep serving the stale entry until the reload has finished.
+   */
+  @Bean
+  public CacheManager cacheManager(CatalogCacheProperties properties, BookRepository bookRepository,
+                                   BookMapper bookMapper, CategoryRepository categoryRepository,
+                                   CategoryMapper categoryMapper) {
+    CacheLoader<Object, Object> bookLoader = id -> bookRepository.findWithCategoryById((Long) id)
+        .map(bookMapper::toResponse)
+        .orElse(null);
+    CacheLoader<Object, Object> categoryLoader = id -> categoryRepository.findById((Long) id)
+        .map(category -> categoryMapper.toResponse(category, (int) categoryRepository.countBooks(category.getId())))
+        .orElse(null);
+
+    SimpleCacheManager cacheManager = new SimpleCacheManager();
+    cacheManager.setCaches(List.of(
+        buildCache(BOOKS, properties, bookLoader),
+        buildCache(CATEGORIES, properties, categoryLoader)));
+    return cacheManager;
+  }
+
+  private static CaffeineCache buildCache(String name, CatalogCacheProperties properties,
+                                          CacheLoader<Object, Object> loader) {
+    Caffeine<Object, Object> builder = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getExpireAfterWrite())
+        .recordStats();
+    if (properties.getRefreshAfterWrite() == null) {
+      return new CaffeineCache(name, builder.build(), false);
+    }
+    builder.refreshAfterWrite(properties.getRefreshAfterWrite());
+    return new CaffeineCache(name, builder.build(loader), false);
+  }
+}
@@ -0,0 +1,33 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the in-process caches of book and category lookups.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "catalog-cache")
+@Getter
+@Setter
+public class CatalogCacheProperties {
+
+  /**
+   * Maximum number of entries per cache.
+   */
+  private long maximumSize = 10_000;
+
+  /**
+   * Time after which an entry expires once it has been written.
+   */
+  private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+  /**
+   * Time after which an entry is reloaded in the background on its next access, while the stale value is
+   * still returned (stale-while-revalidate). Disabled if not set; must be shorter than {@link #expireAfterWrite}.
+   */
+  private Duration refreshAfterWrite;
+}
@@ -0,0 +1,61 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import de.moritzerhard.libraryrestapi.search.ExistenceIndex;
+import de.moritzerhard.libraryrestapi.search.ExistenceIndexListener;
+import java.util.List;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Keeps the {@link ExistenceIndex} up to date by registering the {@link ExistenceIndexListener} with Hibernate
+ * and, while the index is enabled, refilling it from the database periodically.
+ */
+@Configuration
+public class ExistenceIndexConfig {
+
+  /**
+   * Runs the periodic refill of {@link ExistenceIndex#build()}, which picks up keys written by other instances.
+   */
+  @Configuration
+  @EnableScheduling
+  @ConditionalOnProperty(prefix = "existence-index", name = "enabled", havingValue = "true")
+  static class RefreshConfig {
+  }
+
+  /**
+   * Registers the listener for persist, insert and update events. The persist listener is appended after
+   * Hibernate's own, so the id of the entity has been generated when it runs.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer existenceIndexCustomizer(ObjectProvider<ExistenceIndex> existenceIndex) {
+    ExistenceIndexListener listener = new ExistenceIndexListener(existenceIndex);
+    Integrator integrator = new Integrator() {
+      @Override
+      public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                            SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.PERSIST, listener);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+      }
+
+      @Override
+      public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // Nothing to release
+      }
+    };
+    return properties -> properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(integrator));
+  }
+}
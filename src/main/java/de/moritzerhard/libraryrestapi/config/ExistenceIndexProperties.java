@@ -0,0 +1,38 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the in-memory filters of existing book and category ids and customer emails.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "existence-index")
+@Getter
+@Setter
+public class ExistenceIndexProperties {
+
+  /**
+   * Whether lookups of ids and emails that definitely do not exist are answered without a database query.
+   * Keys written by other instances are reported as missing until the next refill, so this is off by default.
+   */
+  private boolean enabled;
+
+  /**
+   * Interval at which the filters are refilled from the database, to pick up keys written by other instances.
+   */
+  private Duration refreshInterval = Duration.ofMinutes(5);
+
+  /**
+   * Number of keys each filter is sized for. Beyond that, the filters let more lookups through to the database.
+   */
+  private long expectedInsertions = 1_000_000;
+
+  /**
+   * Probability that a filter lets the lookup of a nonexistent key through, once it holds the expected number of keys.
+   */
+  private double falsePositiveProbability = 0.01;
+}
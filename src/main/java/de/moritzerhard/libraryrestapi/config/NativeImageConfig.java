@@ -0,0 +1,49 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reachability metadata for the native image that Spring AOT cannot infer from the bean definitions.
+ * Beans, including the MapStruct mappers, and the entities are handled by AOT processing; Hibernate, H2 and
+ * Caffeine are covered by the GraalVM reachability metadata repository. Nimbus JOSE needs no reflection, as it
+ * only reads and writes token headers and claims as JSON maps of plain values.
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageConfig.Hints.class)
+public class NativeImageConfig {
+  static final String DTO_PACKAGE = "de.moritzerhard.libraryrestapi.dto";
+
+  /**
+   * Registers the hints at build time.
+   */
+  static class Hints implements RuntimeHintsRegistrar {
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+      // Request and response DTOs are (de)serialized by Jackson, also inside generic wrappers such as
+      // CursorPageResponse and in the cached values, where AOT cannot see their types. Like
+      // @RegisterReflectionForBinding, but for every class in the DTO packages, so new DTOs are not missed.
+      ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+      scanner.addIncludeFilter((reader, factory) -> true);
+      for (BeanDefinition dto : scanner.findCandidateComponents(DTO_PACKAGE)) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+            ClassUtils.resolveClassName(dto.getBeanClassName(), classLoader));
+      }
+
+      // The Hibernate second-level cache loads its JCache provider by name and its configuration from the classpath
+      hints.reflection().registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+      hints.resources().registerPattern("hibernate-cache.conf");
+      hints.resources().registerPattern("reference.conf");
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for cursor-based pagination of list endpoints.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "pagination")
+@Getter
+@Setter
+public class PaginationProperties {
+
+  /**
+   * Page size used when the client does not request one.
+   */
+  private int defaultPageSize = 20;
+
+  /**
+   * Upper bound for the page size a client may request.
+   */
+  private int maxPageSize = 100;
+
+  /**
+   * Resolves the effective page size for a client request.
+   *
+   * @param requested the page size requested by the client, may be {@code null}
+   * @return the requested page size capped at {@link #maxPageSize}, or the default page size
+   * @throws IllegalArgumentException if the requested page size is not positive
+   */
+  public int resolvePageSize(Integer requested) {
+    if (requested == null) {
+      return defaultPageSize;
+    }
+    if (requested < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + requested);
+    }
+    return Math.min(requested, maxPageSize);
+  }
+}
@@ -0,0 +1,69 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import de.moritzerhard.libraryrestapi.security.ConfigurablePasswordEncoder;
+import de.moritzerhard.libraryrestapi.security.ConfigurablePasswordEncoder.Algorithm;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for password hashing.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "password-hashing")
+@Getter
+@Setter
+public class PasswordHashingProperties {
+
+  /**
+   * Algorithm of new password hashes. Existing hashes of other algorithms keep verifying.
+   */
+  private Algorithm algorithm = Algorithm.BCRYPT;
+
+  /**
+   * BCrypt cost or number of PBKDF2 iterations. Defaults to the recommended cost of the algorithm.
+   * With calibration enabled this is the minimum cost.
+   */
+  private Integer cost;
+
+  /**
+   * Whether to measure the hashing speed at startup and choose the cost that meets {@link #calibrationTarget}.
+   */
+  private boolean calibrate;
+
+  /**
+   * Desired time for hashing one password when calibrating the cost.
+   */
+  private Duration calibrationTarget = Duration.ofMillis(250);
+
+  /**
+   * Number of threads hashing and verifying passwords.
+   */
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Maximum number of hashing requests waiting for a thread. Further requests are rejected.
+   */
+  private int queueCapacity = 32;
+
+  /**
+   * Maximum time a request waits for its hash, including the time spent in the queue.
+   */
+  private Duration timeout = Duration.ofSeconds(2);
+
+  /**
+   * Resolves the configured cost, falling back to the default cost of the configured algorithm.
+   *
+   * @return the cost of new password hashes
+   */
+  public int resolveCost() {
+    if (cost != null) {
+      return cost;
+    }
+    return algorithm == Algorithm.BCRYPT
+        ? ConfigurablePasswordEncoder.DEFAULT_BCRYPT_COST
+        : ConfigurablePasswordEncoder.DEFAULT_PBKDF2_COST;
+  }
+}
@@ -0,0 +1,44 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import de.moritzerhard.libraryrestapi.security.RateLimitFilter;
+import de.moritzerhard.libraryrestapi.security.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Rate limits expensive endpoints per client, enabled with {@code rate-limit.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfig {
+  public static final String METRIC_NAME = "rate.limit.rejected";
+
+  /**
+   * Registers the rate limit filter ahead of the security filter chain.
+   */
+  @Bean
+  public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties, JwtDecoder jwtDecoder,
+                                                                 MeterRegistry meterRegistry) {
+    List<RateLimitFilter.Rule> rules = properties.getRules().stream()
+        .map(rule -> new RateLimitFilter.Rule(rule.getMethod(), PathPatternParser.defaultInstance.parse(rule.getPath()),
+            new RateLimiter(rule.getCapacity(), rule.getRefillPerSecond(), properties.getMaximumClients()),
+            Counter.builder(METRIC_NAME)
+                .description("Requests rejected by the rate limit")
+                .tag("method", rule.getMethod() == null ? "*" : rule.getMethod())
+                .tag("path", rule.getPath())
+                .register(meterRegistry)))
+        .toList();
+    FilterRegistrationBean<RateLimitFilter> registration =
+        new FilterRegistrationBean<>(new RateLimitFilter(rules, jwtDecoder));
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+    return registration;
+  }
+}
@@ -0,0 +1,61 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the per-client rate limits of expensive endpoints.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+  /**
+   * Whether requests are rate limited.
+   */
+  private boolean enabled;
+
+  /**
+   * Maximum number of clients tracked per rule; the least recently seen clients are dropped first.
+   */
+  private long maximumClients = 100_000;
+
+  /**
+   * Rate limits per endpoint; a request is limited by the first rule that matches it.
+   */
+  private List<Rule> rules = new ArrayList<>();
+
+  /**
+   * Token bucket of a client for the requests matching a method and path.
+   */
+  @Getter
+  @Setter
+  public static class Rule {
+
+    /**
+     * HTTP method of the limited requests; all methods if not set.
+     */
+    private String method;
+
+    /**
+     * Path pattern of the limited requests, e.g. {@code /api/v1/books/**}.
+     */
+    private String path;
+
+    /**
+     * Number of requests a client may send at once.
+     */
+    private int capacity;
+
+    /**
+     * Number of requests per second a client may sustain.
+     */
+    private double refillPerSecond;
+  }
+}
@@ -0,0 +1,75 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import de.moritzerhard.libraryrestapi.datasource.ReplicaPoolDataSource;
+import de.moritzerhard.libraryrestapi.datasource.ReplicaRoutingDataSource;
+import java.util.List;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Routes read-only transactions to a pool of read replicas, enabled with {@code replica-datasource.enabled=true}.
+ * The primary database is configured with the usual {@code spring.datasource.*} properties; the application
+ * data source wraps it together with the replicas in a {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica-datasource", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+  /**
+   * Defines the connection pool of the primary database.
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  /**
+   * Defines the pool of replicas, falling back to the primary database if no replica is available.
+   */
+  @Bean
+  public ReplicaPoolDataSource replicaDataSource(ReplicaDataSourceProperties properties,
+                                                 DataSourceProperties primaryProperties,
+                                                 HikariDataSource primaryDataSource) {
+    List<HikariDataSource> replicas = IntStream.range(0, properties.getUrls().size())
+        .mapToObj(i -> replica(i, properties, primaryProperties))
+        .toList();
+    return new ReplicaPoolDataSource(replicas, primaryDataSource, properties.getRetryInterval());
+  }
+
+  /**
+   * Defines the data source used by the application, which routes read-only transactions to the replicas.
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPoolDataSource replicaDataSource,
+                               ReplicaDataSourceProperties properties) {
+    return new LazyConnectionDataSourceProxy(
+        new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, properties.getMaxLag()));
+  }
+
+  private static HikariDataSource replica(int index, ReplicaDataSourceProperties properties,
+                                          DataSourceProperties primaryProperties) {
+    HikariDataSource replica = new HikariDataSource();
+    replica.setPoolName("replica-" + index);
+    replica.setJdbcUrl(properties.getUrls().get(index));
+    replica.setUsername(properties.getUsername() != null ? properties.getUsername()
+        : primaryProperties.determineUsername());
+    replica.setPassword(properties.getPassword() != null ? properties.getPassword()
+        : primaryProperties.determinePassword());
+    replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+    replica.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+    replica.setReadOnly(true);
+    // Start without a connection, so that an unavailable replica fails over instead of failing the startup
+    replica.setInitializationFailTimeout(-1);
+    return replica;
+  }
+}
@@ -0,0 +1,60 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the read replicas that serve read-only transactions.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "replica-datasource")
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+
+  /**
+   * Whether read-only transactions are routed to the replicas.
+   */
+  private boolean enabled;
+
+  /**
+   * JDBC URLs of the replicas.
+   */
+  private List<String> urls = new ArrayList<>();
+
+  /**
+   * Login user of the replicas; the user of the primary database if not set.
+   */
+  private String username;
+
+  /**
+   * Login password of the replicas; the password of the primary database if not set.
+   */
+  private String password;
+
+  /**
+   * Maximum number of connections per replica.
+   */
+  private int maximumPoolSize = 10;
+
+  /**
+   * Time to wait for a replica connection before falling back to another replica or the primary.
+   */
+  private Duration connectionTimeout = Duration.ofSeconds(1);
+
+  /**
+   * Maximum replication lag. Read-only transactions go to the primary for this long after a write has been
+   * committed, so that clients read their own writes.
+   */
+  private Duration maxLag = Duration.ofSeconds(1);
+
+  /**
+   * Time an unavailable replica is skipped before it is tried again.
+   */
+  private Duration retryInterval = Duration.ofSeconds(30);
+}
@@ -5,7 +5,13 @@ import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.OctetSequenceKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.proc.SecurityContext;
+import de.moritzerhard.libraryrestapi.security.BoundedPasswordEncoder;
+import de.moritzerhard.libraryrestapi.security.CachingJwtDecoder;
+import de.moritzerhard.libraryrestapi.security.ConfigurablePasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.Set;
 import javax.crypto.spec.SecretKeySpec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,7 +23,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
@@ -36,6 +41,7 @@ import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
+  private static final Set<String> OPERATIONS_ENDPOINTS = Set.of("/actuator/health", "/actuator/prometheus");
 
   /**
    * Base64-encoded secret key used for signing and verifying JWTs.
@@ -43,11 +49,29 @@ public class SecurityConfig {
   @Value("${jwt.secret}")
   private String secret;
 
+  /**
+   * Maximum number of verified tokens kept by the JWT decoder.
+   */
+  @Value("${jwt.cache.maximum-size:10000}")
+  private long jwtCacheMaximumSize;
+
+  /**
+   * Maximum time a verified token is kept by the JWT decoder, even if it expires later.
+   */
+  @Value("${jwt.cache.max-ttl:1h}")
+  private Duration jwtCacheMaxTtl;
+
+  /**
+   * Port of the actuator endpoints, which must only be reachable by operations tooling.
+   */
+  @Value("${management.server.port}")
+  private int managementPort;
+
   /**
    * Defines the main HTTP security filter chain.
    */
   @Bean
-  public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
     http
         // Disable CSRF because we use JWT (no session state)
         .csrf(AbstractHttpConfigurer::disable)
@@ -68,6 +92,11 @@ public class SecurityConfig {
             // Allow authentication endpoints (login)
             .requestMatchers("/api/v1/auth/**").permitAll()
 
+            // Allow health checks and metric scraping on the management port; other actuator endpoints, and any
+            // actuator endpoint reached through the public port, require authentication
+            .requestMatchers(request -> request.getLocalPort() == managementPort
+                && OPERATIONS_ENDPOINTS.contains(request.getRequestURI())).permitAll()
+
             // Allow anonymous GET access to books and categories
             .requestMatchers(HttpMethod.GET, "/api/v1/books/**", "/api/v1/categories/**").permitAll()
 
@@ -77,13 +106,16 @@ public class SecurityConfig {
             // Require authentication for all customer-related operations
             .requestMatchers("/api/v1/customers/**").authenticated()
 
+            // Require authentication for checking out and returning books
+            .requestMatchers("/api/v1/loans/**").authenticated()
+
             // Any other request must be authenticated
             .anyRequest().authenticated()
         )
 
         // Enable JWT validation using Spring's OAuth2 resource server support
         .oauth2ResourceServer(oauth2 ->
-            oauth2.jwt(jwt -> jwt.decoder(jwtDecoder()))
+            oauth2.jwt(jwt -> jwt.decoder(jwtDecoder))
         );
 
     return http.build();
@@ -107,19 +139,29 @@ public class SecurityConfig {
   /**
    * Configures a JWT decoder for verifying tokens using the same symmetric secret key.
    * Ensures that all incoming tokens are signed with the correct key and algorithm.
+   * Verified tokens are cached until they expire, so repeated requests skip the verification.
+   * The decoder is a {@code MeterBinder}, so Spring Boot binds its cache metrics.
    */
   @Bean
   public JwtDecoder jwtDecoder() {
     byte[] keyBytes = Base64.getDecoder().decode(secret);
-    return NimbusJwtDecoder.withSecretKey(new SecretKeySpec(keyBytes, "HmacSHA256"))
+    JwtDecoder decoder = NimbusJwtDecoder.withSecretKey(new SecretKeySpec(keyBytes, "HmacSHA256"))
         .build();
+    return new CachingJwtDecoder(decoder, jwtCacheMaximumSize, jwtCacheMaxTtl);
   }
 
   /**
-   * Provides a BCrypt password encoder for securely hashing user passwords.
+   * Provides the password encoder for securely hashing user passwords, using the configured algorithm
+   * and cost, or a cost calibrated to the target latency on the current hardware.
+   * Hashing runs on a bounded thread pool, so that bursts of logins cannot occupy all request threads.
    */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+    ConfigurablePasswordEncoder encoder = properties.isCalibrate()
+        ? ConfigurablePasswordEncoder.calibrated(properties.getAlgorithm(), properties.resolveCost(),
+            properties.getCalibrationTarget())
+        : new ConfigurablePasswordEncoder(properties.getAlgorithm(), properties.resolveCost());
+    return new BoundedPasswordEncoder(encoder, properties.getThreads(), properties.getQueueCapacity(),
+        properties.getTimeout(), meterRegistry);
   }
 }
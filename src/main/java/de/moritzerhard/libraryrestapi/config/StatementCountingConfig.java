@@ -0,0 +1,43 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import de.moritzerhard.libraryrestapi.metrics.StatementBudgetFilter;
+import de.moritzerhard.libraryrestapi.metrics.StatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Counts the SQL statements executed per request. The {@link StatementCounter} is always registered with
+ * Hibernate, so tests can assert statement counts; logging of requests exceeding a statement budget is
+ * enabled with {@code statement-budget.enabled=true}.
+ */
+@Configuration
+public class StatementCountingConfig {
+
+  /**
+   * Registers the statement counter as Hibernate statement inspector.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer statementCounterCustomizer() {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+  }
+
+  /**
+   * Registers the filter logging requests that exceed the statement budget, ahead of the security filter chain
+   * so that statements executed during authentication are counted as well.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "statement-budget", name = "enabled", havingValue = "true")
+  public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(
+      @Value("${statement-budget.max-statements:10}") long maxStatements) {
+    FilterRegistrationBean<StatementBudgetFilter> registration =
+        new FilterRegistrationBean<>(new StatementBudgetFilter(maxStatements));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+    return registration;
+  }
+}
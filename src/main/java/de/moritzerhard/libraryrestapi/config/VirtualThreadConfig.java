@@ -0,0 +1,73 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import de.moritzerhard.libraryrestapi.datasource.ReplicaPoolDataSource;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Additional configuration for the virtual-thread mode, enabled with {@code spring.threads.virtual.enabled=true}.
+ * Spring Boot then runs Tomcat requests, MVC async processing and the application task executor on virtual threads.
+ *
+ * <p>On Java 21 a virtual thread that blocks inside a {@code synchronized} block pins its carrier thread.
+ * The H2 engine synchronizes on its sessions and storage, so every virtual thread working on a connection
+ * may pin a carrier. The connection pool is therefore capped below the number of carriers: surplus threads
+ * wait for a connection in HikariCP, which parks them without pinning, and at least one carrier always
+ * stays free for requests that do not touch the database. This guarantee needs at least two carriers: with a
+ * single carrier the one remaining connection can still pin it, which is logged as a warning at startup, so
+ * raise {@code -Djdk.virtualThreadScheduler.parallelism} on single-CPU hosts. The cap applies to each pool, the
+ * read replica pools included, so with replicas enabled lower {@code virtual-threads.max-jdbc-connections} until
+ * the pools together stay below the carriers. Password hashing keeps its bounded pool of platform threads,
+ * because it is CPU-bound.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+  /**
+   * Caps the maximum size of the HikariCP pools, including the read replica pools, to
+   * {@code virtual-threads.max-jdbc-connections}, by default one less than the number of carrier threads.
+   */
+  @Bean
+  public static BeanPostProcessor jdbcPinningGuard(Environment environment) {
+    int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+        Runtime.getRuntime().availableProcessors());
+    int limit = environment.getProperty("virtual-threads.max-jdbc-connections", Integer.class,
+        Math.max(1, carriers - 1));
+    if (limit >= carriers) {
+      log.warn("{} JDBC connections can pin all {} carrier threads of virtual threads; "
+          + "set -Djdk.virtualThreadScheduler.parallelism to at least {}", limit, carriers, limit + 1);
+    }
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+          limit(dataSource, beanName);
+        } else if (bean instanceof ReplicaPoolDataSource replicaPool) {
+          // The replica pools are created by the replica pool bean and are no beans themselves
+          for (DataSource replica : replicaPool.getReplicas()) {
+            if (replica instanceof HikariDataSource dataSource) {
+              limit(dataSource, dataSource.getPoolName());
+            }
+          }
+        }
+        return bean;
+      }
+
+      private void limit(HikariDataSource dataSource, String name) {
+        if (dataSource.getMaximumPoolSize() > limit) {
+          log.info("Limiting JDBC connections of {} from {} to {} to avoid pinning all {} carrier threads",
+              name, dataSource.getMaximumPoolSize(), limit, carriers);
+          dataSource.setMaximumPoolSize(limit);
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,21 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import de.moritzerhard.libraryrestapi.utils.AsyncRequestTimeout;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC customizations on top of the Spring Boot defaults.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+  /**
+   * Lets handlers of long-running streaming responses replace the async request timeout for their request.
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.registerCallableInterceptors(new AsyncRequestTimeout());
+  }
+}
@@ -1,14 +1,25 @@
 package de.moritzerhard.libraryrestapi.controller;
 
 import de.moritzerhard.libraryrestapi.api.BookControllerDefinition;
+import de.moritzerhard.libraryrestapi.dto.request.BookFilterRequest;
 import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.dto.response.BookPageResponse;
 import de.moritzerhard.libraryrestapi.dto.response.BookResponse;
+import de.moritzerhard.libraryrestapi.dto.response.BulkBookResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CursorPageResponse;
 import de.moritzerhard.libraryrestapi.service.BookService;
+import de.moritzerhard.libraryrestapi.utils.AsyncRequestTimeout;
+import de.moritzerhard.libraryrestapi.utils.ETags;
+import java.time.Duration;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Implementation of the book controller for managing book-related endpoints.
@@ -18,6 +29,12 @@ import org.springframework.web.bind.annotation.RestController;
 public class BookController implements BookControllerDefinition {
   private final BookService bookService;
 
+  /**
+   * Time the book export may take, instead of the default async request timeout.
+   */
+  @Value("${book-export.timeout:30m}")
+  private Duration exportTimeout;
+
   @Override
   public ResponseEntity<BookResponse> createBook(BookRequest bookRequest) {
     BookResponse response = bookService.create(bookRequest);
@@ -25,13 +42,41 @@ public class BookController implements BookControllerDefinition {
   }
 
   @Override
-  public ResponseEntity<List<BookResponse>> getAllBooks() {
-    return ResponseEntity.ok(bookService.getAll());
+  public ResponseEntity<BulkBookResponse> createBooks(List<BookRequest> bookRequests) {
+    return ResponseEntity.ok(bookService.createAll(bookRequests));
+  }
+
+  @Override
+  public ResponseEntity<BookPageResponse> getAllBooks(BookFilterRequest filter, String cursor, Integer limit) {
+    BookPageResponse page = bookService.getAll(filter, cursor, limit);
+    // A matching If-None-Match is answered with 304 before the page is serialized
+    return ResponseEntity.ok()
+        .eTag(ETags.fromContent(page.getItems(), page.getNext(), page.getFacets()))
+        .body(page);
+  }
+
+  @Override
+  public ResponseEntity<CursorPageResponse<BookResponse>> searchBooks(String q, String cursor, Integer limit) {
+    return ResponseEntity.ok(bookService.search(q, cursor, limit));
+  }
+
+  @Override
+  public ResponseEntity<StreamingResponseBody> exportBooks(WebRequest webRequest) {
+    AsyncRequestTimeout.set(webRequest, exportTimeout);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(bookService::exportAll);
   }
 
   @Override
-  public ResponseEntity<BookResponse> getBookById(Long id) {
-    return ResponseEntity.ok(bookService.getById(id));
+  public ResponseEntity<BookResponse> getBookById(Long id, WebRequest webRequest) {
+    // The ETag is derived from the cached representation itself, so a warm request needs no query
+    BookResponse book = bookService.getById(id);
+    String eTag = ETags.fromVersions(book.getVersion(), book.getCategoryVersion());
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(eTag).body(book);
   }
 
   @Override
@@ -3,12 +3,14 @@ package de.moritzerhard.libraryrestapi.controller;
 import de.moritzerhard.libraryrestapi.api.CategoryControllerDefinition;
 import de.moritzerhard.libraryrestapi.dto.request.CategoryRequest;
 import de.moritzerhard.libraryrestapi.dto.response.CategoryResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CursorPageResponse;
 import de.moritzerhard.libraryrestapi.service.CategoryService;
-import java.util.List;
+import de.moritzerhard.libraryrestapi.utils.ETags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Implementation of the category controller for managing category-related endpoints.
@@ -25,13 +27,21 @@ public class CategoryController implements CategoryControllerDefinition {
   }
 
   @Override
-  public ResponseEntity<List<CategoryResponse>> getAllCategories() {
-    return ResponseEntity.ok(categoryService.getAll());
+  public ResponseEntity<CursorPageResponse<CategoryResponse>> getAllCategories(String cursor, Integer limit) {
+    CursorPageResponse<CategoryResponse> page = categoryService.getAll(cursor, limit);
+    // A matching If-None-Match is answered with 304 before the page is serialized
+    return ResponseEntity.ok()
+        .eTag(ETags.fromContent(page.getItems(), page.getNext()))
+        .body(page);
   }
 
   @Override
-  public ResponseEntity<CategoryResponse> getCategoryById(Long id) {
-    return ResponseEntity.ok(categoryService.getById(id));
+  public ResponseEntity<CategoryResponse> getCategoryById(Long id, WebRequest webRequest) {
+    String eTag = categoryService.getETag(id);
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(eTag).body(categoryService.getById(id));
   }
 
   @Override
@@ -0,0 +1,36 @@
+package de.moritzerhard.libraryrestapi.controller;
+
+import de.moritzerhard.libraryrestapi.api.LoanControllerDefinition;
+import de.moritzerhard.libraryrestapi.dto.request.LoanRequest;
+import de.moritzerhard.libraryrestapi.dto.response.LoanResponse;
+import de.moritzerhard.libraryrestapi.service.LoanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Implementation of the loan controller for checking out and returning books.
+ */
+@RestController
+@RequiredArgsConstructor
+public class LoanController implements LoanControllerDefinition {
+  private final LoanService loanService;
+
+  @Override
+  public ResponseEntity<LoanResponse> checkoutBook(LoanRequest loanRequest, Jwt principal) {
+    LoanResponse response = loanService.checkout(loanRequest, principal.getSubject());
+    return ResponseEntity.status(HttpStatus.CREATED).body(response);
+  }
+
+  @Override
+  public ResponseEntity<LoanResponse> getLoanById(Long id, Jwt principal) {
+    return ResponseEntity.ok(loanService.getById(id, principal.getSubject()));
+  }
+
+  @Override
+  public ResponseEntity<LoanResponse> returnBook(Long id, Jwt principal) {
+    return ResponseEntity.ok(loanService.returnLoan(id, principal.getSubject()));
+  }
+}
@@ -0,0 +1,104 @@
+package de.moritzerhard.libraryrestapi.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Pool of read replicas that hands out connections round robin. A replica that fails to provide a connection
+ * is skipped for the retry interval; if no replica is available, connections are taken from the fallback,
+ * i.e. the primary database. Closing the pool closes all replicas that are {@link AutoCloseable}.
+ */
+@Slf4j
+public class ReplicaPoolDataSource extends AbstractDataSource implements AutoCloseable {
+  private final List<? extends DataSource> replicas;
+  private final DataSource fallback;
+  private final long retryIntervalNanos;
+  private final LongSupplier nanoTime;
+  private final AtomicInteger next = new AtomicInteger();
+  /**
+   * Per replica the {@link System#nanoTime()} until which it is skipped; 0 for available replicas.
+   */
+  private final AtomicLongArray unavailableUntil;
+
+  /**
+   * Creates a replica pool.
+   *
+   * @param replicas      the replica data sources
+   * @param fallback      the data source used when no replica is available
+   * @param retryInterval the time a failed replica is skipped before it is tried again
+   */
+  public ReplicaPoolDataSource(List<? extends DataSource> replicas, DataSource fallback,
+                               Duration retryInterval) {
+    this(replicas, fallback, retryInterval, System::nanoTime);
+  }
+
+  ReplicaPoolDataSource(List<? extends DataSource> replicas, DataSource fallback,
+                        Duration retryInterval, LongSupplier nanoTime) {
+    this.replicas = List.copyOf(replicas);
+    this.fallback = fallback;
+    this.retryIntervalNanos = retryInterval.toNanos();
+    this.nanoTime = nanoTime;
+    this.unavailableUntil = new AtomicLongArray(replicas.size());
+  }
+
+  /**
+   * Returns the replica data sources, in the order they were configured.
+   */
+  public List<? extends DataSource> getReplicas() {
+    return replicas;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return getConnection(DataSource::getConnection);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return getConnection(dataSource -> dataSource.getConnection(username, password));
+  }
+
+  private Connection getConnection(ConnectionSource source) throws SQLException {
+    int size = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+    for (int i = 0; i < size; i++) {
+      int replica = (start + i) % size;
+      long until = unavailableUntil.get(replica);
+      if (until != 0 && nanoTime.getAsLong() - until < 0) {
+        continue;
+      }
+      try {
+        Connection connection = source.getConnection(replicas.get(replica));
+        unavailableUntil.compareAndSet(replica, until, 0);
+        return connection;
+      } catch (SQLException e) {
+        log.warn("Replica {} is unavailable, skipping it for {} ms: {}", replica, retryIntervalNanos / 1_000_000,
+            e.getMessage());
+        unavailableUntil.set(replica, nanoTime.getAsLong() + retryIntervalNanos);
+      }
+    }
+    return source.getConnection(fallback);
+  }
+
+  @Override
+  public void close() throws Exception {
+    for (DataSource replica : replicas) {
+      if (replica instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ConnectionSource {
+    Connection getConnection(DataSource dataSource) throws SQLException;
+  }
+}
@@ -0,0 +1,70 @@
+package de.moritzerhard.libraryrestapi.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes read-only transactions to the read replicas and everything else to the primary database.
+ * Must be wrapped in a {@link LazyConnectionDataSourceProxy}, so that the physical connection is only
+ * fetched once the transaction, and with it its read-only flag, has been set up.
+ * <p>
+ * Replicas lag behind the primary. To let clients read their own writes, read-only transactions are sent
+ * to the primary as well for the maximum replication lag after any write transaction has committed.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+  private final long maxLagNanos;
+  private final LongSupplier nanoTime;
+  private final AtomicLong lastWrite;
+
+  /**
+   * Creates a routing data source.
+   *
+   * @param primary  the primary database, used for writes and whenever no replica is available
+   * @param replicas the replica pool used for read-only transactions
+   * @param maxLag   the time after a write during which read-only transactions still go to the primary
+   */
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replicas, Duration maxLag) {
+    this(primary, replicas, maxLag, System::nanoTime);
+  }
+
+  ReplicaRoutingDataSource(DataSource primary, DataSource replicas, Duration maxLag, LongSupplier nanoTime) {
+    this.maxLagNanos = maxLag.toNanos();
+    this.nanoTime = nanoTime;
+    this.lastWrite = new AtomicLong(nanoTime.getAsLong() - maxLagNanos);
+    setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replicas));
+    setDefaultTargetDataSource(primary);
+    initialize();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      return Route.PRIMARY;
+    }
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          lastWrite.accumulateAndGet(nanoTime.getAsLong(), Math::max);
+        }
+      });
+      return Route.PRIMARY;
+    }
+    return nanoTime.getAsLong() - lastWrite.get() < maxLagNanos ? Route.PRIMARY : Route.REPLICA;
+  }
+
+  /**
+   * Target of a connection.
+   */
+  enum Route {
+    PRIMARY,
+    REPLICA
+  }
+}
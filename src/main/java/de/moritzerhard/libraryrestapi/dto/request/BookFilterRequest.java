@@ -0,0 +1,34 @@
+package de.moritzerhard.libraryrestapi.dto.request;
+
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for the optional filter criteria of the book list.
+ */
+@Data
+public class BookFilterRequest {
+  @Parameter(description = "Only books of this category")
+  private Long categoryId;
+
+  @Parameter(description = "Only books published in or after this year")
+  private Integer yearFrom;
+
+  @Parameter(description = "Only books published in or before this year")
+  private Integer yearTo;
+
+  @Parameter(description = "Only books by exactly this author")
+  private String author;
+
+  @Parameter(description = "Only books by exactly this publisher")
+  private String publisher;
+
+  /**
+   * Checks whether no filter criterion is set.
+   *
+   * @return {@code true} if all books match this filter
+   */
+  public boolean isEmpty() {
+    return categoryId == null && yearFrom == null && yearTo == null && author == null && publisher == null;
+  }
+}
@@ -1,6 +1,7 @@
 package de.moritzerhard.libraryrestapi.dto.request;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
 
 /**
@@ -18,5 +19,11 @@ public class BookRequest {
 
   private int publishingYear;
 
+  /**
+   * Number of copies the library owns; one for new books if not set, unchanged on updates if not set.
+   */
+  @PositiveOrZero
+  private Integer copies;
+
   private Long categoryId;
 }
@@ -0,0 +1,13 @@
+package de.moritzerhard.libraryrestapi.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for checking out a copy of a book. The borrower is the authenticated customer.
+ */
+@Data
+public class LoanRequest {
+  @NotNull
+  private Long bookId;
+}
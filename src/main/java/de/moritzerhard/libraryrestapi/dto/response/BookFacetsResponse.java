@@ -0,0 +1,29 @@
+package de.moritzerhard.libraryrestapi.dto.response;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the facet counts of a book list.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacetsResponse {
+  /**
+   * Number of matching books per category ID.
+   */
+  private Map<Long, Long> categories;
+
+  /**
+   * Number of matching books per publishing decade, keyed by the first year of the decade.
+   */
+  private Map<Integer, Long> decades;
+
+  /**
+   * Number of matching books of the authors with the most matching books, in descending order.
+   */
+  private Map<String, Long> authors;
+}
@@ -0,0 +1,28 @@
+package de.moritzerhard.libraryrestapi.dto.response;
+
+import java.util.List;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a page of the book list together with the facet counts of all matching books.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class BookPageResponse extends CursorPageResponse<BookResponse> {
+  private BookFacetsResponse facets;
+
+  /**
+   * Creates a page of books with facet counts.
+   *
+   * @param items  the books on the page
+   * @param next   the cursor of the next page, or {@code null} if this is the last page
+   * @param facets the facet counts of all books matching the filter
+   */
+  public BookPageResponse(List<BookResponse> items, String next, BookFacetsResponse facets) {
+    super(items, next);
+    this.facets = facets;
+  }
+}
@@ -1,5 +1,6 @@
 package de.moritzerhard.libraryrestapi.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 /**
@@ -12,5 +13,14 @@ public class BookResponse {
   private String author;
   private String publisher;
   private int publishingYear;
+  private int copies;
+  private int availableCopies;
   private String categoryName;
+  private long version;
+
+  /**
+   * Version of the category, which the ETag covers because the representation contains the category name.
+   */
+  @JsonIgnore
+  private Long categoryVersion;
 }
@@ -0,0 +1,24 @@
+package de.moritzerhard.libraryrestapi.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the result of a bulk book creation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookResponse {
+  /**
+   * The created books, in request order.
+   */
+  private List<BookResponse> created;
+
+  /**
+   * The rejected items, in request order.
+   */
+  private List<BulkItemErrorResponse> errors;
+}
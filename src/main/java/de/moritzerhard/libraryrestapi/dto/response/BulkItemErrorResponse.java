@@ -0,0 +1,19 @@
+package de.moritzerhard.libraryrestapi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for an item of a bulk request that was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemErrorResponse {
+  /**
+   * Zero-based position of the rejected item in the request.
+   */
+  private int index;
+  private String error;
+}
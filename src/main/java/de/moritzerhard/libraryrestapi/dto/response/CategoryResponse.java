@@ -11,4 +11,5 @@ public class CategoryResponse {
   private String name;
   private String description;
   private int bookCount;
+  private long version;
 }
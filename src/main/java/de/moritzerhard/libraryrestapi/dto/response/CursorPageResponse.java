@@ -0,0 +1,23 @@
+package de.moritzerhard.libraryrestapi.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a single page of a cursor-paginated list.
+ *
+ * @param <T> the type of the items on the page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+  private List<T> items;
+
+  /**
+   * Opaque cursor for the next page, or {@code null} if this is the last page.
+   */
+  private String next;
+}
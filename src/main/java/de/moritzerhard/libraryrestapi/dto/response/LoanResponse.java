@@ -0,0 +1,16 @@
+package de.moritzerhard.libraryrestapi.dto.response;
+
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for Loan response.
+ */
+@Data
+public class LoanResponse {
+  private Long id;
+  private Long bookId;
+  private Long customerId;
+  private Instant loanedAt;
+  private Instant returnedAt;
+}
@@ -7,21 +7,30 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Check;
 
 /**
  * Entity representing a book record in the database.
+ * The check constraint guarantees that no more copies can be on loan than the library owns.
  */
 @Entity
 @Setter
 @Getter
 @Table(name = "books")
+@Check(constraints = "available_copies >= 0 AND available_copies <= copies")
 public class BookEntity {
+  /**
+   * Sequence-generated with a pooled allocation, so that Hibernate can batch inserts.
+   */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+  @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank
@@ -34,6 +43,20 @@ public class BookEntity {
 
   private int publishingYear;
 
+  /**
+   * Number of copies the library owns.
+   */
+  private int copies;
+
+  /**
+   * Number of copies not on loan. Only changed by the conditional updates of {@link
+   * de.moritzerhard.libraryrestapi.repository.BookRepository} when copies are checked out or returned.
+   */
+  private int availableCopies;
+
+  @Version
+  private long version;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "category_id")
   private CategoryEntity category;
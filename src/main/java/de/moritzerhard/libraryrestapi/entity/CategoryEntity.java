@@ -1,5 +1,6 @@
 package de.moritzerhard.libraryrestapi.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -8,18 +9,24 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing a category record in the database.
+ * Categories rarely change, so they are kept in the Hibernate second-level cache.
  */
 @Entity
 @Setter
 @Getter
 @Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category-entities")
 public class CategoryEntity {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,6 +38,9 @@ public class CategoryEntity {
 
   private String description;
 
+  @Version
+  private long version;
+
   @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<BookEntity> books;
 }
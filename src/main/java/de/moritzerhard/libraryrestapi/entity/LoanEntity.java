@@ -0,0 +1,53 @@
+package de.moritzerhard.libraryrestapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Entity representing the loan of one copy of a book to a customer.
+ * Returned loans are deleted by the database together with their book or customer; books, their categories
+ * and customers cannot be deleted while one of their loans is open, so no copy is lost.
+ */
+@Entity
+@Setter
+@Getter
+@Table(name = "loans")
+public class LoanEntity {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "book_id", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private BookEntity book;
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "customer_id", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private CustomerEntity customer;
+
+  @Column(nullable = false)
+  private Instant loanedAt;
+
+  /**
+   * Time the copy was returned, or {@code null} while it is on loan.
+   */
+  private Instant returnedAt;
+
+  @Version
+  private long version;
+}
@@ -0,0 +1,17 @@
+package de.moritzerhard.libraryrestapi.exception;
+
+/**
+ * Thrown when a request conflicts with the current state of a resource, e.g. checking out a book
+ * with no copies left or returning a loan twice.
+ */
+public class ConflictException extends RuntimeException {
+
+  /**
+   * Creates the exception.
+   *
+   * @param message the detail message
+   */
+  public ConflictException(String message) {
+    super(message);
+  }
+}
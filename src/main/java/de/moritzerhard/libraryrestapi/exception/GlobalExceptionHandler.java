@@ -2,6 +2,8 @@ package de.moritzerhard.libraryrestapi.exception;
 
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -42,6 +44,33 @@ public class GlobalExceptionHandler {
         .body(Map.of("error", ex.getMessage()));
   }
 
+  /**
+   * Handles requests conflicting with the current state of a resource, including concurrent modifications
+   * detected by optimistic locking.
+   *
+   * @param ex the conflict or optimistic locking exception
+   * @return a {@link ResponseEntity} with a CONFLICT status and error message
+   */
+  @ExceptionHandler({ConflictException.class, OptimisticLockingFailureException.class})
+  public ResponseEntity<Map<String, String>> handleConflict(RuntimeException ex) {
+    String message = ex instanceof ConflictException ? ex.getMessage() : "Resource was modified concurrently";
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(Map.of("error", message));
+  }
+
+  /**
+   * Handles requests rejected because a resource is saturated.
+   *
+   * @param ex the service unavailable exception
+   * @return a {@link ResponseEntity} with a SERVICE_UNAVAILABLE status, a Retry-After header and error message
+   */
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<Map<String, String>> handleServiceUnavailable(ServiceUnavailableException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfter().toSeconds()))
+        .body(Map.of("error", ex.getMessage()));
+  }
+
   /**
    * Handles unexpected runtime exceptions.
    *
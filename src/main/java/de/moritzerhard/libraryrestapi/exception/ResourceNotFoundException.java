@@ -0,0 +1,25 @@
+package de.moritzerhard.libraryrestapi.exception;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Thrown when a requested book or category does not exist. Answered with 404 like any
+ * {@link EntityNotFoundException}, but without a stack trace: it is an expected outcome of probing
+ * nonexistent ids, and filling in the stack trace would be the most expensive part of the request.
+ */
+public class ResourceNotFoundException extends EntityNotFoundException {
+
+  /**
+   * Creates the exception.
+   *
+   * @param message the detail message
+   */
+  public ResourceNotFoundException(String message) {
+    super(message);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,24 @@
+package de.moritzerhard.libraryrestapi.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Thrown when a request cannot be served right now because a resource is saturated.
+ * Clients may retry the request after {@link #getRetryAfter()}.
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+  private final Duration retryAfter;
+
+  /**
+   * Creates the exception.
+   *
+   * @param message    the detail message
+   * @param retryAfter the time after which the client may retry
+   */
+  public ServiceUnavailableException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -12,13 +12,16 @@ import org.mapstruct.Mapping;
 @Mapper(componentModel = "spring")
 public interface BookMapper {
   /**
-   * Maps a BookRequest DTO to a BookEntity.
+   * Maps a BookRequest DTO to a BookEntity. All copies of a new book are available.
    */
+  @Mapping(target = "copies", source = "copies", defaultValue = "1")
+  @Mapping(target = "availableCopies", source = "copies", defaultValue = "1")
   BookEntity toEntity(BookRequest bookRequest);
 
   /**
    * Maps a BookEntity to a BookResponse DTO.
    */
   @Mapping(target = "categoryName", expression = "java(bookEntity.getCategory() != null ? bookEntity.getCategory().getName() : null)")
+  @Mapping(target = "categoryVersion", source = "category.version")
   BookResponse toResponse(BookEntity bookEntity);
 }
\ No newline at end of file
@@ -4,7 +4,6 @@ import de.moritzerhard.libraryrestapi.dto.request.CategoryRequest;
 import de.moritzerhard.libraryrestapi.dto.response.CategoryResponse;
 import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
 import org.mapstruct.Mapper;
-import org.mapstruct.Mapping;
 
 /**
  * Mapper interface for converting between Category entities and DTOs.
@@ -17,8 +16,8 @@ public interface CategoryMapper {
   CategoryEntity toEntity(CategoryRequest categoryRequest);
 
   /**
-   * Maps a CategoryEntity to a CategoryResponse DTO.
+   * Maps a CategoryEntity and its separately counted number of books to a CategoryResponse DTO.
+   * The book count is passed in so that mapping never initializes the books collection.
    */
-  @Mapping(target = "bookCount", expression = "java(categoryEntity.getBooks() != null ? categoryEntity.getBooks().size() : 0)")
-  CategoryResponse toResponse(CategoryEntity categoryEntity);
+  CategoryResponse toResponse(CategoryEntity categoryEntity, int bookCount);
 }
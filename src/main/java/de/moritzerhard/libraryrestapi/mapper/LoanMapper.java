@@ -0,0 +1,20 @@
+package de.moritzerhard.libraryrestapi.mapper;
+
+import de.moritzerhard.libraryrestapi.dto.response.LoanResponse;
+import de.moritzerhard.libraryrestapi.entity.LoanEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Mapper interface for converting Loan entities to DTOs.
+ */
+@Mapper(componentModel = "spring")
+public interface LoanMapper {
+  /**
+   * Maps a LoanEntity to a LoanResponse DTO. Only the ids of book and customer are read,
+   * so their lazy associations are not loaded.
+   */
+  @Mapping(target = "bookId", source = "book.id")
+  @Mapping(target = "customerId", source = "customer.id")
+  LoanResponse toResponse(LoanEntity loanEntity);
+}
@@ -0,0 +1,43 @@
+package de.moritzerhard.libraryrestapi.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the hit ratio of every region of the Hibernate second-level cache, including the query cache.
+ * The hit and miss counts themselves are published by Hibernate's own metrics
+ * ({@code hibernate.second.level.cache.requests}); the ratio makes an ineffective region visible at a glance.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+  public static final String METRIC_NAME = "hibernate.second.level.cache.hit.ratio";
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    for (String region : statistics.getSecondLevelCacheRegionNames()) {
+      Gauge.builder(METRIC_NAME, statistics, stats -> hitRatio(stats.getCacheRegionStatistics(region)))
+          .tag("region", region)
+          .description("Share of second-level cache lookups that were hits")
+          .register(registry);
+    }
+  }
+
+  private static double hitRatio(CacheRegionStatistics region) {
+    if (region == null) {
+      return Double.NaN;
+    }
+    long requests = region.getHitCount() + region.getMissCount();
+    return requests == 0 ? Double.NaN : (double) region.getHitCount() / requests;
+  }
+}
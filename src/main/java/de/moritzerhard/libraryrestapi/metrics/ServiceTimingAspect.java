@@ -0,0 +1,54 @@
+package de.moritzerhard.libraryrestapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the service layer, tagged by service class, method, outcome and exception.
+ * Together with the request timings of Spring MVC ({@code http.server.requests}), the security filter chain
+ * ({@code spring.security.filterchains}) and Spring Data ({@code spring.data.repository.invocations}) this
+ * shows in which layer a slow request spends its time.
+ * The aspect runs outside the transaction and cache advice, so timings include commits and cache hits.
+ */
+@Aspect
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class ServiceTimingAspect {
+  public static final String METRIC_NAME = "service.invocations";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Records the duration of a service method call.
+   *
+   * @param joinPoint the intercepted call
+   * @return the result of the call
+   * @throws Throwable any exception thrown by the call, rethrown unchanged
+   */
+  @Around("within(de.moritzerhard.libraryrestapi.service..*) && execution(public * *(..))")
+  public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String exception = "none";
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      sample.stop(Timer.builder(METRIC_NAME)
+          .description("Duration of service method calls")
+          .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+          .tag("method", joinPoint.getSignature().getName())
+          .tag("outcome", "none".equals(exception) ? "SUCCESS" : "ERROR")
+          .tag("exception", exception)
+          .register(meterRegistry));
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package de.moritzerhard.libraryrestapi.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Logs a warning for every request that executes more SQL statements than the configured budget,
+ * which usually points to lazy loading in a loop (N+1 queries).
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StatementBudgetFilter extends OncePerRequestFilter {
+  private final long maxStatements;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    try (StatementCounter.Scope scope = StatementCounter.open()) {
+      chain.doFilter(request, response);
+      if (scope.count() > maxStatements) {
+        log.warn("{} {} executed {} SQL statements, budget is {}", request.getMethod(), request.getRequestURI(),
+            scope.count(), maxStatements);
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package de.moritzerhard.libraryrestapi.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate {@link StatementInspector} that counts the SQL statements prepared on the current thread
+ * while a {@link Scope} is open. Used to count the statements of a single request, both by
+ * {@link StatementBudgetFilter} and by tests asserting the number of queries an endpoint executes.
+ * Statements executed on other threads, e.g. by asynchronous or streaming responses, are not counted.
+ */
+public class StatementCounter implements StatementInspector {
+  private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+  @Override
+  public String inspect(String sql) {
+    Scope scope = CURRENT.get();
+    if (scope != null) {
+      scope.count++;
+    }
+    return sql;
+  }
+
+  /**
+   * Starts counting the statements of the current thread. A scope opened within another scope counts
+   * its statements towards both.
+   *
+   * @return the scope, to be closed on the same thread
+   */
+  public static Scope open() {
+    Scope scope = new Scope(CURRENT.get());
+    CURRENT.set(scope);
+    return scope;
+  }
+
+  /**
+   * Counting scope of the current thread.
+   */
+  public static final class Scope implements AutoCloseable {
+    private final Scope parent;
+    private long count;
+    private boolean closed;
+
+    private Scope(Scope parent) {
+      this.parent = parent;
+    }
+
+    /**
+     * Returns the number of statements prepared since this scope was opened, up to its closing.
+     */
+    public long count() {
+      return count;
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (parent != null) {
+        parent.count += count;
+        CURRENT.set(parent);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+}
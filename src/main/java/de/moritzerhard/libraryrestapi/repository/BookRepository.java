@@ -1,10 +1,135 @@
 package de.moritzerhard.libraryrestapi.repository;
 
 import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository interface for managing {@link BookEntity} persistence operations.
  */
 public interface BookRepository extends JpaRepository<BookEntity, Long> {
+  /**
+   * Finds the next page of books after the given id that match all given criteria, ordered by id.
+   * Criteria that are {@code null} are ignored.
+   *
+   * @param id         the id of the last book on the previous page
+   * @param categoryId the id of the category the books belong to
+   * @param yearFrom   the earliest publishing year
+   * @param yearTo     the latest publishing year
+   * @param author     the exact author
+   * @param publisher  the exact publisher
+   * @param limit      the maximum number of books to return
+   * @return the matching books with an id greater than the given one, in ascending id order
+   */
+  @EntityGraph(attributePaths = "category")
+  @Query("SELECT b FROM BookEntity b WHERE b.id > :id "
+      + "AND (:categoryId IS NULL OR b.category.id = :categoryId) "
+      + "AND (:yearFrom IS NULL OR b.publishingYear >= :yearFrom) "
+      + "AND (:yearTo IS NULL OR b.publishingYear <= :yearTo) "
+      + "AND (:author IS NULL OR b.author = :author) "
+      + "AND (:publisher IS NULL OR b.publisher = :publisher) "
+      + "ORDER BY b.id")
+  List<BookEntity> findFilteredPage(@Param("id") Long id, @Param("categoryId") Long categoryId,
+                                    @Param("yearFrom") Integer yearFrom, @Param("yearTo") Integer yearTo,
+                                    @Param("author") String author, @Param("publisher") String publisher,
+                                    Limit limit);
+
+  /**
+   * Finds a book by its id, fetching its category in the same query.
+   *
+   * @param id the id of the book
+   * @return an Optional containing the found BookEntity with its category initialized, or empty if not found
+   */
+  @EntityGraph(attributePaths = "category")
+  Optional<BookEntity> findWithCategoryById(Long id);
+
+  /**
+   * Finds the next page of books after the given id, ordered by id (keyset pagination).
+   * The category of each book is fetched in the same query to avoid one extra query per book.
+   *
+   * @param id    the id of the last book on the previous page
+   * @param limit the maximum number of books to return
+   * @return the books with an id greater than the given one, in ascending id order
+   */
+  @EntityGraph(attributePaths = "category")
+  List<BookEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /**
+   * Finds the books with the given ids, fetching their categories in the same query.
+   *
+   * @param ids the ids of the books
+   * @return the found books in no particular order
+   */
+  @EntityGraph(attributePaths = "category")
+  List<BookEntity> findByIdIn(Collection<Long> ids);
+
+  /**
+   * Finds the ids of all books assigned to a category.
+   *
+   * @param categoryId the id of the category
+   * @return the ids of the category's books
+   */
+  @Query("SELECT b.id FROM BookEntity b WHERE b.category.id = :categoryId")
+  List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+  /**
+   * Takes one copy of a book off the shelf, if one is available. The condition and the decrement are a single
+   * statement, so concurrent checkouts cannot take more copies than are available. The version is incremented
+   * as well, which changes the ETag of the book and fails concurrent updates of the loaded book. The persistence
+   * context is flushed before and cleared after, so later reads in the same transaction see the new count.
+   *
+   * @param id the id of the book
+   * @return 1 if a copy was checked out, 0 if no copy is available or the book does not exist
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE BookEntity b SET b.availableCopies = b.availableCopies - 1, b.version = b.version + 1 "
+      + "WHERE b.id = :id AND b.availableCopies > 0")
+  int checkOutCopy(@Param("id") Long id);
+
+  /**
+   * Puts one copy of a book back on the shelf, unless all copies already are. Flushes and clears the persistence
+   * context like {@link #checkOutCopy(Long)}.
+   *
+   * @param id the id of the book
+   * @return 1 if a copy was returned, 0 if all copies are available or the book does not exist
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE BookEntity b SET b.availableCopies = b.availableCopies + 1, b.version = b.version + 1 "
+      + "WHERE b.id = :id AND b.availableCopies < b.copies")
+  int returnCopy(@Param("id") Long id);
+
+  /**
+   * Streams all books together with their category, ordered by id.
+   * Rows are fetched from the database in chunks while the stream is consumed,
+   * so the stream must be consumed and closed within a transaction.
+   *
+   * @return a stream of all books
+   */
+  @Query("SELECT b FROM BookEntity b LEFT JOIN FETCH b.category ORDER BY b.id")
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<BookEntity> streamAll();
+
+  /**
+   * Streams the ids of all books, e.g. to fill the existence index.
+   * The stream must be consumed and closed within a transaction.
+   *
+   * @return a stream of all book ids
+   */
+  @Query("SELECT b.id FROM BookEntity b")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  Stream<Long> streamAllIds();
 }
@@ -1,10 +1,91 @@
 package de.moritzerhard.libraryrestapi.repository;
 
 import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository interface for managing {@link CategoryEntity} persistence operations.
+ * The category lookups are cacheable queries: their results stay in the Hibernate query cache until
+ * one of the queried tables changes.
  */
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long> {
+  /**
+   * Finds the next page of categories after the given id, ordered by id (keyset pagination).
+   *
+   * @param id    the id of the last category on the previous page
+   * @param limit the maximum number of categories to return
+   * @return the categories with an id greater than the given one, in ascending id order
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<CategoryEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /**
+   * Counts the books of a single category without loading them.
+   *
+   * @param categoryId the id of the category
+   * @return the number of books assigned to the category
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query("SELECT COUNT(b) FROM BookEntity b WHERE b.category.id = :categoryId")
+  long countBooks(@Param("categoryId") Long categoryId);
+
+  /**
+   * Loads only the version and the number of books of a category, e.g. to compute its ETag.
+   *
+   * @param id the id of the category
+   * @return the version and book count, or empty if the category does not exist
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query("SELECT c.version AS version, (SELECT COUNT(b) FROM BookEntity b WHERE b.category = c) AS bookCount "
+      + "FROM CategoryEntity c WHERE c.id = :id")
+  Optional<CategoryVersion> findVersionById(@Param("id") Long id);
+
+  /**
+   * Counts the books of several categories with a single grouped query.
+   * Categories without books are not contained in the result.
+   *
+   * @param categoryIds the ids of the categories
+   * @return the book count per category
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query("SELECT b.category.id AS categoryId, COUNT(b) AS bookCount FROM BookEntity b "
+      + "WHERE b.category.id IN :categoryIds GROUP BY b.category.id")
+  List<BookCount> countBooksByCategoryIds(@Param("categoryIds") Collection<Long> categoryIds);
+
+  /**
+   * Streams the ids of all categories, e.g. to fill the existence index.
+   * The stream must be consumed and closed within a transaction.
+   *
+   * @return a stream of all category ids
+   */
+  @Query("SELECT c.id FROM CategoryEntity c")
+  Stream<Long> streamAllIds();
+
+  /**
+   * Projection of the number of books assigned to a category.
+   */
+  interface BookCount {
+    Long getCategoryId();
+
+    long getBookCount();
+  }
+
+  /**
+   * Projection of the version of a category together with its number of books.
+   */
+  interface CategoryVersion {
+    long getVersion();
+
+    long getBookCount();
+  }
 }
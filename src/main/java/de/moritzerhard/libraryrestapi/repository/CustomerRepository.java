@@ -1,9 +1,14 @@
 package de.moritzerhard.libraryrestapi.repository;
 
 import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.Email;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 /**
  * Repository interface for managing {@link CustomerEntity} persistence operations.
@@ -16,4 +21,14 @@ public interface CustomerRepository extends JpaRepository<CustomerEntity, Long>
    * @return an Optional containing the found CustomerEntity, or empty if not found
    */
   Optional<CustomerEntity> findByEmail(@Email String email);
+
+  /**
+   * Streams the email addresses of all customers, e.g. to fill the existence index.
+   * The stream must be consumed and closed within a transaction.
+   *
+   * @return a stream of all customer emails
+   */
+  @Query("SELECT c.email FROM CustomerEntity c")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  Stream<String> streamAllEmails();
 }
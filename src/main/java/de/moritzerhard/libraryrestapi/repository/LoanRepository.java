@@ -0,0 +1,41 @@
+package de.moritzerhard.libraryrestapi.repository;
+
+import de.moritzerhard.libraryrestapi.entity.LoanEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for managing {@link LoanEntity} persistence operations.
+ */
+public interface LoanRepository extends JpaRepository<LoanEntity, Long> {
+  /**
+   * Counts the copies of a book that are currently on loan.
+   *
+   * @param bookId the id of the book
+   * @return the number of loans of the book that have not been returned
+   */
+  long countByBookIdAndReturnedAtIsNull(Long bookId);
+
+  /**
+   * Checks whether a copy of a book is currently on loan.
+   *
+   * @param bookId the id of the book
+   * @return {@code true} if a loan of the book has not been returned
+   */
+  boolean existsByBookIdAndReturnedAtIsNull(Long bookId);
+
+  /**
+   * Checks whether a copy of any book of a category is currently on loan.
+   *
+   * @param categoryId the id of the category
+   * @return {@code true} if a loan of a book of the category has not been returned
+   */
+  boolean existsByBookCategoryIdAndReturnedAtIsNull(Long categoryId);
+
+  /**
+   * Checks whether a customer currently has a book on loan.
+   *
+   * @param customerId the id of the customer
+   * @return {@code true} if a loan of the customer has not been returned
+   */
+  boolean existsByCustomerIdAndReturnedAtIsNull(Long customerId);
+}
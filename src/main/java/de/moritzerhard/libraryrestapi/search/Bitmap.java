@@ -0,0 +1,101 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable bitmap of ordinals, like {@link java.util.BitSet}, that can also count its intersection with another
+ * bitmap without allocating a copy. Not thread-safe.
+ */
+final class Bitmap {
+  private long[] words = new long[0];
+
+  void set(int bit) {
+    int word = bit >>> 6;
+    if (word >= words.length) {
+      words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+    }
+    words[word] |= 1L << bit;
+  }
+
+  void clear(int bit) {
+    int word = bit >>> 6;
+    if (word < words.length) {
+      words[word] &= ~(1L << bit);
+    }
+  }
+
+  boolean get(int bit) {
+    int word = bit >>> 6;
+    return word < words.length && (words[word] & 1L << bit) != 0;
+  }
+
+  /**
+   * Returns the number of set bits.
+   */
+  int cardinality() {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of bits set in both this and the other bitmap.
+   */
+  int andCardinality(Bitmap other) {
+    int count = 0;
+    int length = Math.min(words.length, other.words.length);
+    for (int i = 0; i < length; i++) {
+      count += Long.bitCount(words[i] & other.words[i]);
+    }
+    return count;
+  }
+
+  /**
+   * Clears all bits that are not set in the other bitmap.
+   */
+  void and(Bitmap other) {
+    int length = Math.min(words.length, other.words.length);
+    for (int i = 0; i < length; i++) {
+      words[i] &= other.words[i];
+    }
+    Arrays.fill(words, length, words.length, 0);
+  }
+
+  /**
+   * Sets all bits that are set in the other bitmap.
+   */
+  void or(Bitmap other) {
+    if (other.words.length > words.length) {
+      words = Arrays.copyOf(words, other.words.length);
+    }
+    for (int i = 0; i < other.words.length; i++) {
+      words[i] |= other.words[i];
+    }
+  }
+
+  /**
+   * Returns the first set bit at or after the given one, or {@code -1} if there is none.
+   */
+  int nextSetBit(int from) {
+    int word = from >>> 6;
+    if (word >= words.length) {
+      return -1;
+    }
+    long bits = words[word] & -1L << from;
+    while (bits == 0) {
+      if (++word == words.length) {
+        return -1;
+      }
+      bits = words[word];
+    }
+    return word * 64 + Long.numberOfTrailingZeros(bits);
+  }
+
+  Bitmap copy() {
+    Bitmap copy = new Bitmap();
+    copy.words = words.clone();
+    return copy;
+  }
+}
@@ -0,0 +1,120 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over 64-bit keys: answers whether a key may have been added, with no false negatives and a
+ * configurable rate of false positives. The bits are kept in an {@link AtomicLongArray}, so keys can be added
+ * and queried concurrently without locking. Keys cannot be removed; a removed key just remains a false positive.
+ * Adding more keys than expected does not break the filter, it only raises the false positive rate.
+ */
+public class BloomFilter {
+  private static final double LN2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final long bitCount;
+  private final int hashCount;
+
+  /**
+   * Creates a filter sized for the given number of keys.
+   *
+   * @param expectedInsertions        the number of keys the filter is sized for
+   * @param falsePositiveProbability  the probability of a false positive once that many keys have been added
+   */
+  public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+    if (expectedInsertions < 1 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+      throw new IllegalArgumentException(
+          "Expected insertions must be positive and the false positive probability between 0 and 1");
+    }
+    long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+    int wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+    this.words = new AtomicLongArray(wordCount);
+    this.bitCount = wordCount * 64L;
+    this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * LN2));
+  }
+
+  /**
+   * Adds a numeric key, e.g. an entity id.
+   */
+  public void add(long key) {
+    addHash(mix(key));
+  }
+
+  /**
+   * Adds a string key, e.g. an email address.
+   */
+  public void add(String key) {
+    addHash(hash(key));
+  }
+
+  /**
+   * Returns {@code false} if the numeric key has definitely not been added.
+   */
+  public boolean mightContain(long key) {
+    return mightContainHash(mix(key));
+  }
+
+  /**
+   * Returns {@code false} if the string key has definitely not been added.
+   */
+  public boolean mightContain(String key) {
+    return mightContainHash(hash(key));
+  }
+
+  /**
+   * Returns the size of the filter in bits.
+   */
+  public long bitCount() {
+    return bitCount;
+  }
+
+  private void addHash(long hash) {
+    // Kirsch-Mitzenmacher double hashing: the i-th bit index is h1 + i * h2
+    long h2 = mix(hash) | 1;
+    long combined = hash;
+    for (int i = 0; i < hashCount; i++, combined += h2) {
+      long bit = (combined & Long.MAX_VALUE) % bitCount;
+      long mask = 1L << bit;
+      int word = (int) (bit >>> 6);
+      if ((words.get(word) & mask) == 0) {
+        words.getAndAccumulate(word, mask, (current, set) -> current | set);
+      }
+    }
+  }
+
+  private boolean mightContainHash(long hash) {
+    long h2 = mix(hash) | 1;
+    long combined = hash;
+    for (int i = 0; i < hashCount; i++, combined += h2) {
+      long bit = (combined & Long.MAX_VALUE) % bitCount;
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 64-bit FNV-1a over the characters of the string, finished with {@link #mix(long)}.
+   */
+  private static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  /**
+   * Finalizer of MurmurHash3, which spreads every input bit over the whole hash, so sequential ids are
+   * scattered over the filter.
+   */
+  private static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+}
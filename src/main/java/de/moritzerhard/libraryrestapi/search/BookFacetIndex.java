@@ -0,0 +1,469 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import de.moritzerhard.libraryrestapi.dto.request.BookFilterRequest;
+import de.moritzerhard.libraryrestapi.dto.response.BookFacetsResponse;
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory facet counts over all books: books per category, per publishing decade and per author.
+ * Every book is assigned an ordinal; the facet values of each ordinal are kept in arrays, the books of
+ * each category and decade in a bitmap, the books of each author and publisher in a sorted ordinal list,
+ * and the unfiltered counts in count tables. Everything is built at startup and kept up to date by
+ * {@link #index(BookEntity)} and {@link #remove(long)}, so computing facets never needs a database round
+ * trip. The ordinals of removed books are reclaimed by renumbering the remaining books once removed
+ * ordinals make up more than half of the index.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookFacetIndex {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int TOP_AUTHORS = 10;
+  private static final Comparator<Map.Entry<String, Long>> RANK_ORDER =
+      Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+  private final BookRepository bookRepository;
+  private final EntityManager entityManager;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, Integer> ordinalByBookId = new HashMap<>();
+  private Bitmap live = new Bitmap();
+  private final Map<Long, Bitmap> booksByCategory = new HashMap<>();
+  private final Map<Integer, Bitmap> booksByDecade = new HashMap<>();
+  private final Map<String, Ordinals> booksByAuthor = new HashMap<>();
+  private final Map<String, Ordinals> booksByPublisher = new HashMap<>();
+  /**
+   * The books of all authors, ordered by descending number of books.
+   */
+  private final NavigableSet<Ordinals> authorsByCount = new TreeSet<>(
+      Comparator.comparingInt(Ordinals::size).reversed().thenComparing(Ordinals::name));
+  private final Map<Long, Long> categoryCounts = new HashMap<>();
+  private final Map<Integer, Long> decadeCounts = new HashMap<>();
+  /**
+   * Canonical instances of author and publisher names, so each distinct name is stored once.
+   */
+  private final Map<String, String> names = new HashMap<>();
+  private Long[] categoryIds = new Long[INITIAL_CAPACITY];
+  private int[] years = new int[INITIAL_CAPACITY];
+  private String[] authors = new String[INITIAL_CAPACITY];
+  private String[] publishers = new String[INITIAL_CAPACITY];
+  private int ordinalCount;
+
+  /**
+   * Builds the facet index from all books in the database once the application has started.
+   * Reads from the primary database rather than a replica, so the index cannot miss writes that have
+   * not been replicated yet.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      clear();
+      try (Stream<BookEntity> books = bookRepository.streamAll()) {
+        books.forEach(book -> {
+          add(book, ordinalCount++);
+          entityManager.detach(book);
+        });
+      }
+      log.info("Built book facet index with {} books", ordinalByBookId.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a book to the facet counts, replacing a previously indexed version of the same book.
+   *
+   * @param book the book to index
+   */
+  public void index(BookEntity book) {
+    lock.writeLock().lock();
+    try {
+      // Updated books keep their ordinal
+      Integer ordinal = ordinalByBookId.get(book.getId());
+      delete(book.getId());
+      add(book, ordinal != null ? ordinal : ordinalCount++);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a book from the facet counts. Does nothing if the book is not indexed.
+   *
+   * @param bookId the id of the book to remove
+   */
+  public void remove(long bookId) {
+    lock.writeLock().lock();
+    try {
+      delete(bookId);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Computes the facet counts of all books matching the given filter.
+   * Without filter criteria the maintained count tables are returned directly; otherwise the bitmap of
+   * the matching books is built by intersecting the category, decade, author and publisher sets, and the
+   * category and decade counts are the cardinalities of its intersections with their bitmaps.
+   *
+   * @param filter the filter criteria
+   * @return the facet counts of the matching books
+   */
+  public BookFacetsResponse facets(BookFilterRequest filter) {
+    lock.readLock().lock();
+    try {
+      if (filter.isEmpty()) {
+        return toResponse(categoryCounts, decadeCounts, topAuthors(null));
+      }
+
+      Bitmap matches = matches(filter);
+      Map<Long, Long> categories = new HashMap<>();
+      if (filter.getCategoryId() != null) {
+        increment(categories, filter.getCategoryId(), matches.cardinality());
+      } else {
+        booksByCategory.forEach((categoryId, books) ->
+            increment(categories, categoryId, books.andCardinality(matches)));
+      }
+      Map<Integer, Long> decades = new HashMap<>();
+      booksByDecade.forEach((decade, books) -> increment(decades, decade, books.andCardinality(matches)));
+      return toResponse(categories, decades, topAuthors(matches));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Builds the bitmap of the books matching the filter, starting from the category bitmap and narrowing it
+   * down to the author's and publisher's books first, as these are usually the most selective criteria.
+   */
+  private Bitmap matches(BookFilterRequest filter) {
+    Bitmap matches = filter.getCategoryId() == null
+        ? live.copy()
+        : booksByCategory.getOrDefault(filter.getCategoryId(), new Bitmap()).copy();
+    if (filter.getAuthor() != null) {
+      matches = restrict(matches, booksByAuthor.get(filter.getAuthor()));
+    }
+    if (filter.getPublisher() != null) {
+      matches = restrict(matches, booksByPublisher.get(filter.getPublisher()));
+    }
+    if (filter.getYearFrom() != null || filter.getYearTo() != null) {
+      matches.and(booksInYears(filter.getYearFrom(), filter.getYearTo(), matches));
+    }
+    return matches;
+  }
+
+  private static Bitmap restrict(Bitmap candidates, Ordinals books) {
+    Bitmap restricted = new Bitmap();
+    if (books != null) {
+      for (int i = 0; i < books.size; i++) {
+        if (candidates.get(books.ordinals[i])) {
+          restricted.set(books.ordinals[i]);
+        }
+      }
+    }
+    return restricted;
+  }
+
+  /**
+   * Returns the candidates published within the given years: the union of the decades completely within
+   * the range, plus the candidates of the at most two partially covered decades whose year is in range.
+   */
+  private Bitmap booksInYears(Integer yearFrom, Integer yearTo, Bitmap candidates) {
+    int first = yearFrom != null ? yearFrom : Integer.MIN_VALUE;
+    int last = yearTo != null ? yearTo : Integer.MAX_VALUE;
+    Bitmap inRange = new Bitmap();
+    booksByDecade.forEach((decade, books) -> {
+      if (decade >= first && decade + 9 <= last) {
+        inRange.or(books);
+      } else if (decade + 9 >= first && decade <= last) {
+        Bitmap partial = books.copy();
+        partial.and(candidates);
+        for (int ordinal = partial.nextSetBit(0); ordinal >= 0; ordinal = partial.nextSetBit(ordinal + 1)) {
+          if (years[ordinal] >= first && years[ordinal] <= last) {
+            inRange.set(ordinal);
+          }
+        }
+      }
+    });
+    return inRange;
+  }
+
+  /**
+   * Selects the authors with the most matching books, or with the most books if {@code matches} is
+   * {@code null}. Authors are visited in descending order of their total number of books, which bounds
+   * their number of matching books, so the scan stops once no remaining author can enter the top list.
+   * Should the scan visit more books than match, the matching books are counted directly instead.
+   */
+  private Map<String, Long> topAuthors(Bitmap matches) {
+    PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(TOP_AUTHORS + 1, RANK_ORDER.reversed());
+    int budget = matches != null ? matches.cardinality() : Integer.MAX_VALUE;
+    for (Ordinals books : authorsByCount) {
+      if (top.size() == TOP_AUTHORS && top.peek().getValue() > books.size) {
+        break;
+      }
+      budget -= books.size;
+      if (budget < 0) {
+        return countAuthors(matches);
+      }
+      int count = matches != null ? books.countIn(matches) : books.size;
+      if (count > 0) {
+        addRanked(top, Map.entry(books.name, (long) count));
+      }
+    }
+    return sorted(top);
+  }
+
+  private Map<String, Long> countAuthors(Bitmap matches) {
+    Map<String, Long> counts = new HashMap<>();
+    for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+      increment(counts, authors[ordinal], 1);
+    }
+    // Select the top authors with a bounded heap whose head is the weakest author kept so far
+    PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(TOP_AUTHORS + 1, RANK_ORDER.reversed());
+    counts.entrySet().forEach(entry -> addRanked(top, entry));
+    return sorted(top);
+  }
+
+  private static void addRanked(PriorityQueue<Map.Entry<String, Long>> top, Map.Entry<String, Long> entry) {
+    top.add(entry);
+    if (top.size() > TOP_AUTHORS) {
+      top.poll();
+    }
+  }
+
+  private static Map<String, Long> sorted(PriorityQueue<Map.Entry<String, Long>> top) {
+    return top.stream()
+        .sorted(RANK_ORDER)
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+  }
+
+  private void add(BookEntity book, int ordinal) {
+    if (ordinal == years.length) {
+      categoryIds = Arrays.copyOf(categoryIds, ordinal * 2);
+      years = Arrays.copyOf(years, ordinal * 2);
+      authors = Arrays.copyOf(authors, ordinal * 2);
+      publishers = Arrays.copyOf(publishers, ordinal * 2);
+    }
+    Long categoryId = book.getCategory() != null ? book.getCategory().getId() : null;
+    categoryIds[ordinal] = categoryId;
+    years[ordinal] = book.getPublishingYear();
+    authors[ordinal] = canonical(book.getAuthor());
+    publishers[ordinal] = canonical(book.getPublisher());
+    ordinalByBookId.put(book.getId(), ordinal);
+    setBits(ordinal);
+    if (authors[ordinal] != null) {
+      Ordinals books = booksByAuthor.computeIfAbsent(authors[ordinal], Ordinals::new);
+      // The position of an author depends on the number of books, so it is re-inserted
+      authorsByCount.remove(books);
+      books.add(ordinal);
+      authorsByCount.add(books);
+    }
+    if (publishers[ordinal] != null) {
+      booksByPublisher.computeIfAbsent(publishers[ordinal], Ordinals::new).add(ordinal);
+    }
+
+    increment(categoryCounts, categoryId, 1);
+    increment(decadeCounts, decade(years[ordinal]), 1);
+  }
+
+  private void delete(long bookId) {
+    Integer ordinal = ordinalByBookId.remove(bookId);
+    if (ordinal == null) {
+      return;
+    }
+    live.clear(ordinal);
+    Long categoryId = categoryIds[ordinal];
+    if (categoryId != null) {
+      booksByCategory.get(categoryId).clear(ordinal);
+    }
+    booksByDecade.get(decade(years[ordinal])).clear(ordinal);
+    Ordinals authorBooks = booksByAuthor.get(authors[ordinal]);
+    if (authorBooks != null) {
+      authorsByCount.remove(authorBooks);
+      if (authorBooks.remove(ordinal)) {
+        authorsByCount.add(authorBooks);
+      } else {
+        booksByAuthor.remove(authorBooks.name);
+      }
+    }
+    Ordinals publisherBooks = booksByPublisher.get(publishers[ordinal]);
+    if (publisherBooks != null && !publisherBooks.remove(ordinal)) {
+      booksByPublisher.remove(publisherBooks.name);
+    }
+
+    increment(categoryCounts, categoryId, -1);
+    increment(decadeCounts, decade(years[ordinal]), -1);
+    authors[ordinal] = null;
+    publishers[ordinal] = null;
+  }
+
+  private void setBits(int ordinal) {
+    live.set(ordinal);
+    if (categoryIds[ordinal] != null) {
+      booksByCategory.computeIfAbsent(categoryIds[ordinal], id -> new Bitmap()).set(ordinal);
+    }
+    booksByDecade.computeIfAbsent(decade(years[ordinal]), decade -> new Bitmap()).set(ordinal);
+  }
+
+  /**
+   * Moves the remaining books to the lowest ordinals and rebuilds the bitmaps
+   * once removed ordinals outnumber the live ones.
+   */
+  private void compactIfNeeded() {
+    int liveCount = ordinalByBookId.size();
+    if (ordinalCount - liveCount <= Math.max(INITIAL_CAPACITY, liveCount)) {
+      return;
+    }
+    long[] bookIds = new long[ordinalCount];
+    ordinalByBookId.forEach((bookId, ordinal) -> bookIds[ordinal] = bookId);
+    int[] renumbered = new int[ordinalCount];
+    Bitmap remaining = live;
+    live = new Bitmap();
+    booksByCategory.clear();
+    booksByDecade.clear();
+    int next = 0;
+    for (int ordinal = remaining.nextSetBit(0); ordinal >= 0; ordinal = remaining.nextSetBit(ordinal + 1)) {
+      categoryIds[next] = categoryIds[ordinal];
+      years[next] = years[ordinal];
+      authors[next] = authors[ordinal];
+      publishers[next] = publishers[ordinal];
+      ordinalByBookId.put(bookIds[ordinal], next);
+      renumbered[ordinal] = next;
+      setBits(next);
+      next++;
+    }
+    // Renumbering keeps the order of the remaining books, so the ordinal lists stay sorted
+    booksByAuthor.values().forEach(books -> books.renumber(renumbered));
+    booksByPublisher.values().forEach(books -> books.renumber(renumbered));
+    Arrays.fill(categoryIds, next, ordinalCount, null);
+    Arrays.fill(authors, next, ordinalCount, null);
+    Arrays.fill(publishers, next, ordinalCount, null);
+    ordinalCount = next;
+  }
+
+  private void clear() {
+    ordinalByBookId.clear();
+    live = new Bitmap();
+    booksByCategory.clear();
+    booksByDecade.clear();
+    booksByAuthor.clear();
+    booksByPublisher.clear();
+    authorsByCount.clear();
+    categoryCounts.clear();
+    decadeCounts.clear();
+    names.clear();
+    categoryIds = new Long[INITIAL_CAPACITY];
+    years = new int[INITIAL_CAPACITY];
+    authors = new String[INITIAL_CAPACITY];
+    publishers = new String[INITIAL_CAPACITY];
+    ordinalCount = 0;
+  }
+
+  private String canonical(String name) {
+    return name == null ? null : names.computeIfAbsent(name, n -> n);
+  }
+
+  private static int decade(int year) {
+    return Math.floorDiv(year, 10) * 10;
+  }
+
+  /**
+   * Adds a delta to a count, dropping the entry once it reaches zero. {@code null} keys and zero counts
+   * are not counted.
+   */
+  private static <K> void increment(Map<K, Long> counts, K key, long delta) {
+    if (key != null && delta != 0) {
+      counts.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+  }
+
+  private static BookFacetsResponse toResponse(Map<Long, Long> categories, Map<Integer, Long> decades,
+                                               Map<String, Long> topAuthors) {
+    return new BookFacetsResponse(new TreeMap<>(categories), new TreeMap<>(decades), topAuthors);
+  }
+
+  /**
+   * The sorted ordinals of the books of one author or publisher. Lists are used rather than bitmaps, as
+   * there are many authors and publishers with few books each.
+   */
+  private static final class Ordinals {
+    private final String name;
+    private int[] ordinals = new int[1];
+    private int size;
+
+    Ordinals(String name) {
+      this.name = name;
+    }
+
+    String name() {
+      return name;
+    }
+
+    int size() {
+      return size;
+    }
+
+    void add(int ordinal) {
+      int index = -Arrays.binarySearch(ordinals, 0, size, ordinal) - 1;
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+      }
+      System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+      ordinals[index] = ordinal;
+      size++;
+    }
+
+    /**
+     * Removes an ordinal and returns whether any ordinals remain.
+     */
+    boolean remove(int ordinal) {
+      int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+      if (index >= 0) {
+        System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+        size--;
+      }
+      return size > 0;
+    }
+
+    int countIn(Bitmap bitmap) {
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        if (bitmap.get(ordinals[i])) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    void renumber(int[] renumbered) {
+      for (int i = 0; i < size; i++) {
+        ordinals[i] = renumbered[ordinals[i]];
+      }
+    }
+  }
+}
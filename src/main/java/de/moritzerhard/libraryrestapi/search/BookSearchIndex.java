@@ -0,0 +1,391 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory inverted index over the title, author and publisher of all books, ranked with BM25.
+ * Every book is assigned an internal document number; postings lists store document numbers and
+ * term frequencies in primitive int arrays. The index is built at startup and kept up to date by
+ * {@link #index(BookEntity)} and {@link #remove(long)}. Removed documents are tombstoned and purged
+ * from the postings lists once they make up more than half of the index.
+ * Follow-up pages of a search are scored with the {@link RankingStats} of its first page, so that books
+ * indexed or removed in between do not shift the scores of the other books and pages neither skip nor repeat hits.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+  private static final float K1 = 1.2f;
+  private static final float B = 0.75f;
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final BookRepository bookRepository;
+  private final EntityManager entityManager;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Postings> postingsByTerm = new HashMap<>();
+  private final Map<Long, Integer> docByBookId = new HashMap<>();
+  private long[] bookIds = new long[INITIAL_CAPACITY];
+  /**
+   * Number of tokens per document, or {@code -1} for removed documents.
+   */
+  private int[] docLengths = new int[INITIAL_CAPACITY];
+  /**
+   * Postings lists each document appears in, so that removals only touch the terms of that document.
+   */
+  private Postings[][] docPostings = new Postings[INITIAL_CAPACITY][];
+  private int docCount;
+  private int liveDocCount;
+  private long liveTokenCount;
+
+  /**
+   * Builds the index from all books in the database once the application has started.
+   * Reads from the primary database rather than a replica, so the index cannot miss writes that have
+   * not been replicated yet.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      clear();
+      try (Stream<BookEntity> books = bookRepository.streamAll()) {
+        books.forEach(book -> {
+          add(book);
+          entityManager.detach(book);
+        });
+      }
+      log.info("Built book search index with {} books and {} terms", liveDocCount, postingsByTerm.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a book to the index, replacing a previously indexed version of the same book.
+   *
+   * @param book the book to index
+   */
+  public void index(BookEntity book) {
+    lock.writeLock().lock();
+    try {
+      delete(book.getId());
+      add(book);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a book from the index. Does nothing if the book is not indexed.
+   *
+   * @param bookId the id of the book to remove
+   */
+  public void remove(long bookId) {
+    lock.writeLock().lock();
+    try {
+      delete(bookId);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Searches the index and returns the best matching books, ordered by descending score and ascending id.
+   *
+   * @param query the search query, tokenized like the indexed fields
+   * @param after the hit after which results start, or {@code null} for the first hits
+   * @param stats the ranking statistics returned with the first hits, or {@code null} to rank with the current ones
+   * @param limit the maximum number of hits to return
+   * @return the matching hits in rank order, with the ranking statistics they were scored with
+   * @throws IllegalArgumentException if the ranking statistics do not belong to the query
+   */
+  public SearchResults search(String query, SearchHit after, RankingStats stats, int limit) {
+    List<String> terms = List.copyOf(new LinkedHashSet<>(tokenize(query)));
+    if (stats != null && (stats.getDocCount() <= 0 || stats.getDocFrequencies().length != terms.size())) {
+      throw new IllegalArgumentException("Search cursor does not match the query");
+    }
+    lock.readLock().lock();
+    try {
+      if (stats == null) {
+        stats = currentStats(terms);
+      }
+      if (terms.isEmpty() || liveDocCount == 0) {
+        return new SearchResults(List.of(), stats);
+      }
+      float avgDocLength = (float) stats.getTokenCount() / stats.getDocCount();
+      Postings[] termPostings = new Postings[terms.size()];
+      float[] idfs = new float[terms.size()];
+      int termCount = 0;
+      for (int j = 0; j < terms.size(); j++) {
+        Postings postings = postingsByTerm.get(terms.get(j));
+        if (postings != null && postings.liveCount > 0) {
+          int docFrequency = stats.getDocFrequencies()[j];
+          termPostings[termCount] = postings;
+          idfs[termCount] =
+              (float) Math.log(1 + (stats.getDocCount() - docFrequency + 0.5) / (docFrequency + 0.5));
+          termCount++;
+        }
+      }
+
+      // Score one document at a time by merging the postings lists, which are sorted by document number,
+      // so a query allocates memory in proportion to its terms and hits rather than to the size of the index.
+      // Keep the best hits in a bounded heap whose head is the worst hit kept so far.
+      Comparator<SearchHit> rankOrder = SearchHit.RANK_ORDER;
+      PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, rankOrder.reversed());
+      int[] positions = new int[termCount];
+      while (true) {
+        int doc = Integer.MAX_VALUE;
+        for (int t = 0; t < termCount; t++) {
+          if (positions[t] < termPostings[t].size) {
+            doc = Math.min(doc, termPostings[t].docs[positions[t]]);
+          }
+        }
+        if (doc == Integer.MAX_VALUE) {
+          break;
+        }
+        int docLength = docLengths[doc];
+        float score = 0;
+        for (int t = 0; t < termCount; t++) {
+          Postings postings = termPostings[t];
+          int i = positions[t];
+          if (i < postings.size && postings.docs[i] == doc) {
+            int tf = postings.freqs[i];
+            score += idfs[t] * tf * (K1 + 1) / (tf + K1 * (1 - B + B * docLength / avgDocLength));
+            positions[t]++;
+          }
+        }
+        if (docLength < 0) {
+          continue;
+        }
+        SearchHit hit = new SearchHit(bookIds[doc], score);
+        if (after != null && rankOrder.compare(hit, after) <= 0) {
+          continue;
+        }
+        if (top.size() < limit) {
+          top.add(hit);
+        } else if (rankOrder.compare(hit, top.peek()) < 0) {
+          top.poll();
+          top.add(hit);
+        }
+      }
+      List<SearchHit> hits = new ArrayList<>(top);
+      hits.sort(rankOrder);
+      return new SearchResults(hits, stats);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private RankingStats currentStats(List<String> terms) {
+    int[] docFrequencies = new int[terms.size()];
+    for (int j = 0; j < terms.size(); j++) {
+      Postings postings = postingsByTerm.get(terms.get(j));
+      docFrequencies[j] = postings == null ? 0 : postings.liveCount;
+    }
+    return new RankingStats(liveDocCount, liveTokenCount, docFrequencies);
+  }
+
+  /**
+   * Splits text into lower-case tokens of letters and digits.
+   *
+   * @param text the text to tokenize, may be {@code null}
+   * @return the tokens in order of appearance
+   */
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null) {
+      return tokens;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (tokenChar && start < 0) {
+        start = i;
+      } else if (!tokenChar && start >= 0) {
+        tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  private void add(BookEntity book) {
+    List<String> tokens = new ArrayList<>(tokenize(book.getTitle()));
+    tokens.addAll(tokenize(book.getAuthor()));
+    tokens.addAll(tokenize(book.getPublisher()));
+
+    int doc = docCount++;
+    if (doc == bookIds.length) {
+      bookIds = Arrays.copyOf(bookIds, doc * 2);
+      docLengths = Arrays.copyOf(docLengths, doc * 2);
+      docPostings = Arrays.copyOf(docPostings, doc * 2);
+    }
+    bookIds[doc] = book.getId();
+    docLengths[doc] = tokens.size();
+    docByBookId.put(book.getId(), doc);
+    liveDocCount++;
+    liveTokenCount += tokens.size();
+
+    Map<String, Integer> frequencies = new HashMap<>();
+    tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+    Postings[] termPostings = new Postings[frequencies.size()];
+    int i = 0;
+    for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+      Postings postings = postingsByTerm.computeIfAbsent(entry.getKey(), term -> new Postings());
+      postings.add(doc, entry.getValue());
+      termPostings[i++] = postings;
+    }
+    docPostings[doc] = termPostings;
+  }
+
+  private void delete(long bookId) {
+    Integer doc = docByBookId.remove(bookId);
+    if (doc == null) {
+      return;
+    }
+    liveDocCount--;
+    liveTokenCount -= docLengths[doc];
+    docLengths[doc] = -1;
+    for (Postings postings : docPostings[doc]) {
+      postings.liveCount--;
+    }
+    docPostings[doc] = null;
+  }
+
+  /**
+   * Drops removed documents from all postings lists and renumbers the remaining documents
+   * once removed documents outnumber the live ones.
+   */
+  private void compactIfNeeded() {
+    if (docCount - liveDocCount <= Math.max(INITIAL_CAPACITY, liveDocCount)) {
+      return;
+    }
+    int[] newDocNumbers = new int[docCount];
+    int next = 0;
+    for (int doc = 0; doc < docCount; doc++) {
+      if (docLengths[doc] < 0) {
+        newDocNumbers[doc] = -1;
+      } else {
+        newDocNumbers[doc] = next;
+        bookIds[next] = bookIds[doc];
+        docLengths[next] = docLengths[doc];
+        docPostings[next] = docPostings[doc];
+        docByBookId.put(bookIds[next], next);
+        next++;
+      }
+    }
+    Arrays.fill(docPostings, next, docCount, null);
+    docCount = next;
+    postingsByTerm.values().removeIf(postings -> postings.renumber(newDocNumbers) == 0);
+  }
+
+  private void clear() {
+    postingsByTerm.clear();
+    docByBookId.clear();
+    bookIds = new long[INITIAL_CAPACITY];
+    docLengths = new int[INITIAL_CAPACITY];
+    docPostings = new Postings[INITIAL_CAPACITY][];
+    docCount = 0;
+    liveDocCount = 0;
+    liveTokenCount = 0;
+  }
+
+  /**
+   * A single search result: the id of a matching book and its BM25 score.
+   */
+  @Value
+  public static class SearchHit {
+    /**
+     * Orders hits by descending score, ties broken by ascending book id.
+     */
+    static final Comparator<SearchHit> RANK_ORDER = Comparator.comparingDouble(SearchHit::getScore).reversed()
+        .thenComparingLong(SearchHit::getBookId);
+
+    long bookId;
+    float score;
+  }
+
+  /**
+   * The hits of a search together with the ranking statistics they were scored with.
+   */
+  @Value
+  public static class SearchResults {
+    List<SearchHit> hits;
+    RankingStats stats;
+  }
+
+  /**
+   * Collection statistics BM25 scores are computed from: the number of documents, their total number of
+   * tokens and the number of documents containing each distinct query term, in query order.
+   */
+  @Value
+  public static class RankingStats {
+    int docCount;
+    long tokenCount;
+    int[] docFrequencies;
+  }
+
+  /**
+   * Postings list of a single term, sorted by document number.
+   */
+  private static final class Postings {
+    private int[] docs = new int[4];
+    private int[] freqs = new int[4];
+    private int size;
+    private int liveCount;
+
+    void add(int doc, int frequency) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+        freqs = Arrays.copyOf(freqs, size * 2);
+      }
+      docs[size] = doc;
+      freqs[size] = frequency;
+      size++;
+      liveCount++;
+    }
+
+    /**
+     * Rewrites the document numbers of this list, dropping removed documents.
+     *
+     * @return the number of remaining entries
+     */
+    int renumber(int[] newDocNumbers) {
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        int doc = newDocNumbers[docs[i]];
+        if (doc >= 0) {
+          docs[kept] = doc;
+          freqs[kept] = freqs[i];
+          kept++;
+        }
+      }
+      size = kept;
+      return size;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import de.moritzerhard.libraryrestapi.config.ExistenceIndexProperties;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
+import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
+import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Bloom filters of the ids of all books and categories and the emails of all customers, so lookups of keys
+ * that definitely do not exist, e.g. scrapers probing random ids, are answered without a database query.
+ * The filters are filled at startup and every new key is added by the {@link ExistenceIndexListener} before its
+ * transaction commits, so they never report a key written through this instance as missing. Keys written by other
+ * instances sharing the database are only picked up when the filters are refilled from the database every
+ * {@code existence-index.refresh-interval}; until then they are reported as missing. The index is therefore
+ * disabled by default and should only be enabled for a single instance, or where that delay is acceptable.
+ * Deleted keys stay in the filters and are looked up in the database as before.
+ * Until the filters are filled, and if the index is disabled, every key is reported as possibly existing.
+ */
+@Slf4j
+@Component
+public class ExistenceIndex {
+  private final BookRepository bookRepository;
+  private final CategoryRepository categoryRepository;
+  private final CustomerRepository customerRepository;
+  private final boolean enabled;
+  private final BloomFilter bookIds;
+  private final BloomFilter categoryIds;
+  private final BloomFilter customerEmails;
+  private volatile boolean ready;
+
+  public ExistenceIndex(BookRepository bookRepository, CategoryRepository categoryRepository,
+                        CustomerRepository customerRepository, ExistenceIndexProperties properties) {
+    this.bookRepository = bookRepository;
+    this.categoryRepository = categoryRepository;
+    this.customerRepository = customerRepository;
+    this.enabled = properties.isEnabled();
+    this.bookIds = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+    this.categoryIds = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+    this.customerEmails = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+  }
+
+  /**
+   * Adds all existing keys to the filters once the application has started, and again periodically to pick up
+   * keys written by other instances. Keys added concurrently by writes go into the same filters, so none are lost.
+   * Reads from the primary database rather than a replica, so the filters cannot miss writes that have not been
+   * replicated yet.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(initialDelayString = "${existence-index.refresh-interval:5m}",
+      fixedDelayString = "${existence-index.refresh-interval:5m}")
+  @Transactional
+  public void build() {
+    if (!enabled) {
+      return;
+    }
+    long books;
+    long categories;
+    long customers;
+    try (Stream<Long> ids = bookRepository.streamAllIds()) {
+      books = addAll(ids, bookIds::add);
+    }
+    try (Stream<Long> ids = categoryRepository.streamAllIds()) {
+      categories = addAll(ids, categoryIds::add);
+    }
+    try (Stream<String> emails = customerRepository.streamAllEmails()) {
+      customers = addAll(emails, customerEmails::add);
+    }
+    ready = true;
+    log.info("Built existence index with {} books, {} categories and {} customers", books, categories, customers);
+  }
+
+  /**
+   * Records a new book id.
+   */
+  public void addBook(long id) {
+    bookIds.add(id);
+  }
+
+  /**
+   * Records a new category id.
+   */
+  public void addCategory(long id) {
+    categoryIds.add(id);
+  }
+
+  /**
+   * Records a new or changed customer email.
+   */
+  public void addCustomerEmail(String email) {
+    customerEmails.add(email);
+  }
+
+  /**
+   * Returns {@code false} if no book with the given id exists.
+   */
+  public boolean mightContainBook(long id) {
+    return !ready || bookIds.mightContain(id);
+  }
+
+  /**
+   * Returns {@code false} if no category with the given id exists.
+   */
+  public boolean mightContainCategory(long id) {
+    return !ready || categoryIds.mightContain(id);
+  }
+
+  /**
+   * Returns {@code false} if no customer with the given email exists.
+   */
+  public boolean mightContainCustomerEmail(String email) {
+    return !ready || customerEmails.mightContain(email);
+  }
+
+  private static <T> long addAll(Stream<T> keys, Consumer<T> filter) {
+    long count = 0;
+    for (Iterator<T> iterator = keys.iterator(); iterator.hasNext(); count++) {
+      filter.accept(iterator.next());
+    }
+    return count;
+  }
+}
@@ -0,0 +1,74 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import org.hibernate.event.spi.PersistContext;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Hibernate event listener that adds the keys of new books, categories and customers, and changed customer
+ * emails, to the {@link ExistenceIndex}, whether they are saved by a service or directly through a repository.
+ * Registered after Hibernate's own persist listener, it sees a sequence-generated id as soon as the entity is
+ * persisted, before its insert is flushed; ids only known after the insert are recorded once it has run.
+ * Either way keys are recorded before the transaction commits, so no other transaction can see a key that
+ * the index does not know yet.
+ */
+public class ExistenceIndexListener implements PersistEventListener, PostInsertEventListener, PostUpdateEventListener {
+  private final ObjectProvider<ExistenceIndex> existenceIndex;
+
+  /**
+   * Creates the listener.
+   *
+   * @param existenceIndex the index, looked up lazily because it depends on the repositories and thus on the
+   *                       entity manager factory this listener is registered with
+   */
+  public ExistenceIndexListener(ObjectProvider<ExistenceIndex> existenceIndex) {
+    this.existenceIndex = existenceIndex;
+  }
+
+  @Override
+  public void onPersist(PersistEvent event) {
+    record(event.getObject());
+  }
+
+  @Override
+  public void onPersist(PersistEvent event, PersistContext createdAlready) {
+    record(event.getObject());
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    record(event.getEntity());
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    record(event.getEntity());
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return false;
+  }
+
+  private void record(Object entity) {
+    switch (entity) {
+      case BookEntity book when book.getId() != null -> existenceIndex.getObject().addBook(book.getId());
+      case CategoryEntity category when category.getId() != null ->
+          existenceIndex.getObject().addCategory(category.getId());
+      case CustomerEntity customer when customer.getEmail() != null ->
+          existenceIndex.getObject().addCustomerEmail(customer.getEmail());
+      default -> {
+        // Not indexed, or the id is not assigned yet
+      }
+    }
+  }
+}
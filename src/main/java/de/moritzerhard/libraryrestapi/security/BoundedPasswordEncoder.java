@@ -0,0 +1,117 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import de.moritzerhard.libraryrestapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} that runs the deliberately slow hashing of its delegate on a dedicated,
+ * bounded thread pool instead of the request thread. A burst of logins therefore only occupies the
+ * hashing threads and the request threads waiting for them, while all other requests keep being served.
+ * Requests that find the queue full, or that do not get their hash within the timeout, fail fast with a
+ * {@link ServiceUnavailableException}.
+ * The queue depth, the number of busy threads and the hashing latency are published as metrics.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+  private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final Duration timeout;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+
+  /**
+   * Creates a bounded encoder.
+   *
+   * @param delegate      the encoder doing the actual hashing
+   * @param threads       the number of hashing threads
+   * @param queueCapacity the maximum number of requests waiting for a hashing thread
+   * @param timeout       the maximum time a request waits for its hash, including queueing
+   * @param meterRegistry the registry to publish the metrics to
+   */
+  public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout,
+                                MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.timeout = timeout;
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+        new ThreadPoolExecutor.AbortPolicy());
+
+    Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+        .description("Number of password hashing requests waiting for a thread")
+        .register(meterRegistry);
+    Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Number of threads currently hashing passwords")
+        .register(meterRegistry);
+    this.encodeTimer = hashTimer(meterRegistry, "encode");
+    this.matchesTimer = hashTimer(meterRegistry, "matches");
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  /**
+   * Stops the hashing threads once the application shuts down.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private <T> T submit(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      throw new ServiceUnavailableException("Too many concurrent password hashing requests", RETRY_AFTER);
+    }
+    try {
+      return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      // Drops the task if it is still queued; a running hash cannot be interrupted and simply completes
+      future.cancel(true);
+      throw new ServiceUnavailableException("Password hashing timed out", RETRY_AFTER);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException("Interrupted while waiting for password hashing", RETRY_AFTER);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("password.hashing")
+        .description("Time spent hashing or verifying a password")
+        .tag("operation", operation)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,117 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * {@link JwtDecoder} that caches successfully decoded tokens, so that repeated requests with the same
+ * bearer token skip parsing, signature verification and claim validation.
+ * Tokens are cached by their SHA-256 digest, never in plain text. Each entry is evicted at the expiry
+ * of its token, or after the maximum time to live if that comes first. Tokens that fail decoding are
+ * never cached. Hit and miss counts are published as cache metrics named {@code jwt}.
+ */
+public class CachingJwtDecoder implements JwtDecoder, MeterBinder {
+  private final JwtDecoder delegate;
+  private final Cache<String, Jwt> cache;
+
+  /**
+   * Creates a caching decoder.
+   *
+   * @param delegate    the decoder verifying tokens on a cache miss
+   * @param maximumSize the maximum number of cached tokens
+   * @param maxTtl      the maximum time a token is cached, also applied to tokens without expiry
+   */
+  public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maxTtl) {
+    this(delegate, maximumSize, maxTtl, Ticker.systemTicker(), Clock.systemUTC());
+  }
+
+  /**
+   * Creates a caching decoder with the given time sources: the ticker ages cache entries, the clock is compared
+   * with the expiry of tokens.
+   */
+  CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maxTtl, Ticker ticker, Clock clock) {
+    this.delegate = delegate;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new TokenExpiry(maxTtl, clock))
+        .ticker(ticker)
+        .recordStats()
+        .build();
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    String key = digest(token);
+    Jwt jwt = cache.getIfPresent(key);
+    if (jwt != null) {
+      return jwt;
+    }
+    jwt = delegate.decode(token);
+    cache.put(key, jwt);
+    return jwt;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    // Same tag keys as the Spring caches, as Prometheus rejects meters whose tag keys differ for the same name
+    CaffeineCacheMetrics.monitor(registry, cache, "jwt", Tags.of("cache.manager", "jwtDecoder", "name", "jwt"));
+  }
+
+  private static String digest(String token) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /**
+   * Expires cached tokens at their {@code exp} claim, capped by the maximum time to live.
+   */
+  private static final class TokenExpiry implements Expiry<String, Jwt> {
+    private final long maxTtlNanos;
+    private final Clock clock;
+
+    private TokenExpiry(Duration maxTtl, Clock clock) {
+      this.maxTtlNanos = maxTtl.toNanos();
+      this.clock = clock;
+    }
+
+    @Override
+    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+      Instant expiresAt = jwt.getExpiresAt();
+      if (expiresAt == null) {
+        return maxTtlNanos;
+      }
+      long untilExpiry = Duration.between(clock.instant(), expiresAt).toNanos();
+      return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, jwt, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
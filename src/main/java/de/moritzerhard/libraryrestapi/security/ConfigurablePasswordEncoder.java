@@ -0,0 +1,172 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm;
+
+/**
+ * {@link PasswordEncoder} hashing with a configurable algorithm and cost.
+ * Hashes are stored with an algorithm prefix, {@code {bcrypt}<bcrypt hash>} or
+ * {@code {pbkdf2}<iterations>$<hex salt and hash>}, so that hashes created with other parameters keep
+ * verifying after the configuration changed. Hashes without prefix are verified as BCrypt.
+ * {@link #upgradeEncoding(String)} reports every hash of another algorithm or with a lower cost than the current
+ * configuration, so that it can be replaced after the next successful login. Hashes with a higher cost are kept,
+ * so lowering the configured cost never weakens existing hashes.
+ */
+@Slf4j
+public class ConfigurablePasswordEncoder implements PasswordEncoder {
+  /**
+   * Default BCrypt cost, the log2 of the number of rounds.
+   */
+  public static final int DEFAULT_BCRYPT_COST = 10;
+
+  /**
+   * Default number of PBKDF2-HMAC-SHA256 iterations, as recommended by OWASP.
+   */
+  public static final int DEFAULT_PBKDF2_COST = 600_000;
+
+  private static final String BCRYPT_PREFIX = "{bcrypt}";
+  private static final String PBKDF2_PREFIX = "{pbkdf2}";
+  private static final int PBKDF2_SALT_LENGTH = 16;
+  private static final int CALIBRATION_RUNS = 3;
+
+  @Getter
+  private final Algorithm algorithm;
+  @Getter
+  private final int cost;
+  private final BCryptPasswordEncoder bcrypt;
+  private final Map<Integer, Pbkdf2PasswordEncoder> pbkdf2ByIterations = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an encoder.
+   *
+   * @param algorithm the algorithm of new hashes
+   * @param cost      the BCrypt cost or the number of PBKDF2 iterations of new hashes
+   */
+  public ConfigurablePasswordEncoder(Algorithm algorithm, int cost) {
+    this.algorithm = algorithm;
+    this.cost = cost;
+    this.bcrypt = new BCryptPasswordEncoder(algorithm == Algorithm.BCRYPT ? cost : DEFAULT_BCRYPT_COST);
+  }
+
+  /**
+   * Creates an encoder whose cost is chosen so that hashing a password takes about the target latency
+   * on the current hardware, but never less than the given minimum cost.
+   *
+   * @param algorithm     the algorithm of new hashes
+   * @param minimumCost   the lowest acceptable cost
+   * @param targetLatency the desired time for hashing one password
+   * @return the calibrated encoder
+   */
+  public static ConfigurablePasswordEncoder calibrated(Algorithm algorithm, int minimumCost, Duration targetLatency) {
+    double targetNanos = targetLatency.toNanos();
+    int cost;
+    if (algorithm == Algorithm.BCRYPT) {
+      // Every additional BCrypt cost step doubles the hashing time
+      int probeCost = 6;
+      double probeNanos = measure(new ConfigurablePasswordEncoder(algorithm, probeCost));
+      cost = probeCost + (int) Math.floor(Math.log(targetNanos / probeNanos) / Math.log(2));
+      cost = Math.min(cost, 31);
+    } else {
+      // PBKDF2 time grows linearly with the number of iterations
+      int probeIterations = 20_000;
+      double probeNanos = measure(new ConfigurablePasswordEncoder(algorithm, probeIterations));
+      cost = (int) Math.min(Integer.MAX_VALUE, Math.round(probeIterations * targetNanos / probeNanos / 1000) * 1000);
+    }
+    cost = Math.max(cost, minimumCost);
+    log.info("Calibrated {} password hashing to cost {} for a target latency of {}", algorithm, cost, targetLatency);
+    return new ConfigurablePasswordEncoder(algorithm, cost);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    if (algorithm == Algorithm.BCRYPT) {
+      return BCRYPT_PREFIX + bcrypt.encode(rawPassword);
+    }
+    return PBKDF2_PREFIX + cost + '$' + pbkdf2(cost).encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+    if (encodedPassword.startsWith(PBKDF2_PREFIX)) {
+      Integer iterations = pbkdf2Iterations(encodedPassword);
+      if (iterations == null) {
+        return false;
+      }
+      String hash = encodedPassword.substring(encodedPassword.indexOf('$', PBKDF2_PREFIX.length()) + 1);
+      return pbkdf2(iterations).matches(rawPassword, hash);
+    }
+    return bcrypt.matches(rawPassword, stripPrefix(encodedPassword, BCRYPT_PREFIX));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+    if (encodedPassword.startsWith(PBKDF2_PREFIX)) {
+      Integer iterations = pbkdf2Iterations(encodedPassword);
+      return algorithm != Algorithm.PBKDF2 || iterations == null || iterations < cost;
+    }
+    return algorithm != Algorithm.BCRYPT || bcryptCost(stripPrefix(encodedPassword, BCRYPT_PREFIX)) < cost;
+  }
+
+  private Pbkdf2PasswordEncoder pbkdf2(int iterations) {
+    return pbkdf2ByIterations.computeIfAbsent(iterations, i -> new Pbkdf2PasswordEncoder("", PBKDF2_SALT_LENGTH, i,
+        SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+  }
+
+  private static Integer pbkdf2Iterations(String encodedPassword) {
+    int separator = encodedPassword.indexOf('$', PBKDF2_PREFIX.length());
+    try {
+      return separator < 0 ? null : Integer.valueOf(encodedPassword.substring(PBKDF2_PREFIX.length(), separator));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Reads the cost of a hash in the modular crypt format {@code $2a$12$...}, or returns -1 if it is malformed.
+   */
+  private static int bcryptCost(String hash) {
+    try {
+      return hash.length() > 7 && hash.charAt(0) == '$' ? Integer.parseInt(hash.substring(4, 6)) : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static String stripPrefix(String encodedPassword, String prefix) {
+    return encodedPassword.startsWith(prefix) ? encodedPassword.substring(prefix.length()) : encodedPassword;
+  }
+
+  /**
+   * Returns the fastest of a few hashing runs, which is the least disturbed by warm-up and other load.
+   */
+  private static double measure(PasswordEncoder encoder) {
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < CALIBRATION_RUNS; i++) {
+      long start = System.nanoTime();
+      encoder.encode("calibration");
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+    return fastest;
+  }
+
+  /**
+   * Supported password hashing algorithms.
+   */
+  public enum Algorithm {
+    BCRYPT,
+    PBKDF2
+  }
+}
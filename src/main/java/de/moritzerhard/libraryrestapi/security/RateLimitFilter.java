@@ -0,0 +1,86 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+
+/**
+ * Rejects requests with 429 (Too Many Requests) and a {@code Retry-After} header once a client exceeds the
+ * rate limit of the endpoint. Clients are identified by the subject of a valid bearer token, otherwise by
+ * their IP address. Behind a reverse proxy the address is the one Tomcat resolved from {@code X-Forwarded-For}
+ * ({@code server.forward-headers-strategy=native}), so the proxy must be listed as an internal proxy. Runs ahead
+ * of the security filter chain, so that rejected requests cost no authentication.
+ */
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final List<Rule> rules;
+  private final JwtDecoder jwtDecoder;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+    for (Rule rule : rules) {
+      if (rule.matches(request.getMethod(), path)) {
+        Duration retryAfter = rule.limiter().tryAcquire(client(request));
+        if (!retryAfter.isZero()) {
+          rule.rejected().increment();
+          reject(response, retryAfter);
+          return;
+        }
+        break;
+      }
+    }
+    chain.doFilter(request, response);
+  }
+
+  private String client(HttpServletRequest request) {
+    String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+      try {
+        return "sub:" + jwtDecoder.decode(authorization.substring(BEARER_PREFIX.length())).getSubject();
+      } catch (JwtException e) {
+        // invalid tokens are limited by IP address, the security filter chain rejects them afterwards
+      }
+    }
+    return "ip:" + request.getRemoteAddr();
+  }
+
+  private static void reject(HttpServletResponse response, Duration retryAfter) throws IOException {
+    long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.getWriter().write("{\"error\":\"Too many requests\"}");
+  }
+
+  /**
+   * Rate limit of the requests matching a method and path pattern.
+   *
+   * @param method   the HTTP method, or {@code null} for all methods
+   * @param pattern  the path pattern
+   * @param limiter  the token buckets of the clients
+   * @param rejected the counter of rejected requests
+   */
+  public record Rule(String method, PathPattern pattern, RateLimiter limiter, Counter rejected) {
+    boolean matches(String requestMethod, PathContainer path) {
+      return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+    }
+  }
+}
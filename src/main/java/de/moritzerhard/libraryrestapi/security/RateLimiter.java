@@ -0,0 +1,66 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per client, implemented as generic cell rate algorithm (GCRA): a bucket is a single
+ * {@link AtomicLong} holding the time at which it will be full again, updated with compare-and-set, so
+ * acquiring a token takes no lock. Buckets live in a size-bounded cache and are dropped once they have been
+ * idle long enough to be full again, which loses no state.
+ */
+public class RateLimiter {
+  private final long emissionIntervalNanos;
+  private final long burstNanos;
+  private final Ticker ticker;
+  private final Cache<String, AtomicLong> buckets;
+
+  /**
+   * Creates a rate limiter.
+   *
+   * @param capacity        the number of requests a client may send at once (bucket size)
+   * @param refillPerSecond the number of tokens added to a bucket per second
+   * @param maximumClients  the maximum number of tracked clients; the least recently seen are dropped first
+   */
+  public RateLimiter(int capacity, double refillPerSecond, long maximumClients) {
+    this(capacity, refillPerSecond, maximumClients, Ticker.systemTicker());
+  }
+
+  RateLimiter(int capacity, double refillPerSecond, long maximumClients, Ticker ticker) {
+    if (capacity < 1 || refillPerSecond <= 0) {
+      throw new IllegalArgumentException("Capacity and refill rate must be positive");
+    }
+    this.emissionIntervalNanos = Math.round(1_000_000_000 / refillPerSecond);
+    this.burstNanos = emissionIntervalNanos * capacity;
+    this.ticker = ticker;
+    this.buckets = Caffeine.newBuilder()
+        .maximumSize(maximumClients)
+        .expireAfterAccess(Duration.ofNanos(burstNanos))
+        .ticker(ticker)
+        .build();
+  }
+
+  /**
+   * Takes a token from the client's bucket.
+   *
+   * @param client the key of the client
+   * @return {@link Duration#ZERO} if a token was taken, otherwise the time until the next token is available
+   */
+  public Duration tryAcquire(String client) {
+    AtomicLong full = buckets.get(client, key -> new AtomicLong(ticker.read()));
+    while (true) {
+      long now = ticker.read();
+      long current = full.get();
+      long next = Math.max(current - now, 0) + emissionIntervalNanos;
+      if (next > burstNanos) {
+        return Duration.ofNanos(next - burstNanos);
+      }
+      if (full.compareAndSet(current, now + next)) {
+        return Duration.ZERO;
+      }
+    }
+  }
+}
@@ -26,6 +26,8 @@ public class AuthService {
 
   /**
    * Authenticates a user using the provided credentials and returns a JWT token.
+   * If the stored password hash was created with another algorithm or cost than currently configured,
+   * it is replaced by a fresh hash of the verified password.
    *
    * @param request the login credentials containing email and password
    * @return a {@link LoginResponse} containing the generated JWT token
@@ -39,18 +41,31 @@ public class AuthService {
     if (!passwordEncoder.matches(request.getPassword(), customer.getPassword())) {
       throw new IllegalArgumentException("Invalid credentials");
     }
+    if (passwordEncoder.upgradeEncoding(customer.getPassword())) {
+      customer.setPassword(passwordEncoder.encode(request.getPassword()));
+      customerRepository.save(customer);
+    }
+
+    return new LoginResponse(issueToken(customer.getEmail()));
+  }
 
+  /**
+   * Issues a signed JWT for the given subject, valid for one hour.
+   *
+   * @param subject the subject of the token, i.e. the email of the customer
+   * @return the encoded token
+   */
+  public String issueToken(String subject) {
     Instant now = Instant.now();
     JwtClaimsSet claims = JwtClaimsSet.builder()
-        .subject(customer.getEmail())
+        .subject(subject)
         .issuedAt(now)
         .expiresAt(now.plusSeconds(3600))
         .build();
 
     JwsHeader header = JwsHeader.with(() -> "HS256").build();
 
-    String token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
-    return new LoginResponse(token);
+    return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
   }
 
 }
@@ -1,16 +1,59 @@
 package de.moritzerhard.libraryrestapi.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.moritzerhard.libraryrestapi.concurrency.SingleFlight;
+import de.moritzerhard.libraryrestapi.config.CacheConfig;
+import de.moritzerhard.libraryrestapi.config.PaginationProperties;
+import de.moritzerhard.libraryrestapi.dto.request.BookFilterRequest;
 import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.dto.response.BookPageResponse;
 import de.moritzerhard.libraryrestapi.dto.response.BookResponse;
+import de.moritzerhard.libraryrestapi.dto.response.BulkBookResponse;
+import de.moritzerhard.libraryrestapi.dto.response.BulkItemErrorResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CursorPageResponse;
 import de.moritzerhard.libraryrestapi.entity.BookEntity;
 import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import de.moritzerhard.libraryrestapi.exception.ConflictException;
+import de.moritzerhard.libraryrestapi.exception.ResourceNotFoundException;
 import de.moritzerhard.libraryrestapi.mapper.BookMapper;
 import de.moritzerhard.libraryrestapi.repository.BookRepository;
 import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
+import de.moritzerhard.libraryrestapi.repository.LoanRepository;
+import de.moritzerhard.libraryrestapi.search.BookFacetIndex;
+import de.moritzerhard.libraryrestapi.search.BookSearchIndex;
+import de.moritzerhard.libraryrestapi.search.BookSearchIndex.RankingStats;
+import de.moritzerhard.libraryrestapi.search.BookSearchIndex.SearchHit;
+import de.moritzerhard.libraryrestapi.search.BookSearchIndex.SearchResults;
+import de.moritzerhard.libraryrestapi.search.ExistenceIndex;
+import de.moritzerhard.libraryrestapi.utils.PageCursor;
+import de.moritzerhard.libraryrestapi.utils.Transactions;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for managing books, providing CRUD operations.
@@ -19,48 +62,221 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class BookService {
 
+  /**
+   * Number of exported books after which the output is flushed to the client.
+   */
+  private static final int EXPORT_FLUSH_INTERVAL = 500;
+
   private final BookRepository bookRepository;
   private final CategoryRepository categoryRepository;
+  private final LoanRepository loanRepository;
   private final BookMapper bookMapper;
+  private final PaginationProperties paginationProperties;
+  private final BookSearchIndex bookSearchIndex;
+  private final BookFacetIndex bookFacetIndex;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final CacheManager cacheManager;
+  private final ExistenceIndex existenceIndex;
+
+  /**
+   * Number of books inserted per flush in bulk creation, matching the JDBC batch size.
+   */
+  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+  private int bulkBatchSize;
+
+  @Value("${bulk.max-items:1000}")
+  private int bulkMaxItems;
 
   /**
    * Creates a new book and assigns it to a category.
    *
    * @param request the book creation request containing book details and category ID
    * @return the created {@link BookResponse}
-   * @throws EntityNotFoundException if the category does not exist
+   * @throws EntityNotFoundException  if the category does not exist
+   * @throws IllegalArgumentException if the number of copies is negative
    */
+  @Transactional
   public BookResponse create(BookRequest request) {
+    requireNonNegativeCopies(request.getCopies());
+    requireCategory(request.getCategoryId());
     CategoryEntity category = categoryRepository.findById(request.getCategoryId())
-        .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + request.getCategoryId()));
+        .orElseThrow(() -> categoryNotFound(request.getCategoryId()));
 
     BookEntity entity = bookMapper.toEntity(request);
     entity.setCategory(category);
-    return bookMapper.toResponse(bookRepository.save(entity));
+    BookEntity saved = bookRepository.save(entity);
+    indexAfterCommit(saved);
+    evictCategory(category);
+    return bookMapper.toResponse(saved);
   }
 
   /**
-   * Retrieves all books.
+   * Creates many books at once. All referenced categories are loaded with a single query and the
+   * valid books are inserted in JDBC batches. Invalid items are reported by their position in the
+   * request and do not prevent the other books from being created.
    *
-   * @return a list of all {@link BookResponse} objects
+   * @param requests the book creation requests
+   * @return a {@link BulkBookResponse} with the created books and the rejected items
+   * @throws IllegalArgumentException if the request is empty or contains more than the allowed number of items
    */
-  public List<BookResponse> getAll() {
-    return bookRepository.findAll()
+  @Transactional
+  public BulkBookResponse createAll(List<BookRequest> requests) {
+    if (requests.isEmpty() || requests.size() > bulkMaxItems) {
+      throw new IllegalArgumentException("Bulk request must contain between 1 and " + bulkMaxItems + " books");
+    }
+    Map<Long, CategoryEntity> categories = categoryRepository.findAllById(requests.stream()
+            .map(BookRequest::getCategoryId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet()))
         .stream()
+        .collect(Collectors.toMap(CategoryEntity::getId, Function.identity()));
+
+    List<BookEntity> valid = new ArrayList<>();
+    List<BulkItemErrorResponse> errors = new ArrayList<>();
+    for (int i = 0; i < requests.size(); i++) {
+      BookRequest request = requests.get(i);
+      String error = validate(request, categories);
+      if (error != null) {
+        errors.add(new BulkItemErrorResponse(i, error));
+        continue;
+      }
+      BookEntity entity = bookMapper.toEntity(request);
+      entity.setCategory(categories.get(request.getCategoryId()));
+      valid.add(entity);
+    }
+
+    List<BookResponse> created = new ArrayList<>(valid.size());
+    for (int from = 0; from < valid.size(); from += bulkBatchSize) {
+      List<BookEntity> batch = bookRepository.saveAll(valid.subList(from, Math.min(from + bulkBatchSize, valid.size())));
+      // Flush each batch and detach it, so the persistence context stays small for large requests
+      entityManager.flush();
+      for (BookEntity saved : batch) {
+        indexAfterCommit(saved);
+        created.add(bookMapper.toResponse(saved));
+      }
+      entityManager.clear();
+    }
+    valid.stream().map(BookEntity::getCategory).distinct().forEach(this::evictCategory);
+    return new BulkBookResponse(created, errors);
+  }
+
+  /**
+   * Retrieves one page of the books matching the filter, ordered by id and starting after the given cursor,
+   * together with the facet counts of all matching books.
+   *
+   * @param filter   the filter criteria
+   * @param cursor   the opaque cursor returned with the previous page, or {@code null} for the first page
+   * @param pageSize the requested page size, or {@code null} for the default page size
+   * @return a {@link BookPageResponse} with the books of the page, the cursor of the next page and the facets
+   * @throws IllegalArgumentException if the cursor or the page size is invalid
+   */
+  @SingleFlight
+  @Transactional(readOnly = true)
+  public BookPageResponse getAll(BookFilterRequest filter, String cursor, Integer pageSize) {
+    int size = paginationProperties.resolvePageSize(pageSize);
+    long afterId = cursor == null ? 0L : PageCursor.decode(cursor).getLastId();
+
+    // Fetch one extra row to find out whether another page follows
+    Limit limit = Limit.of(size + 1);
+    List<BookEntity> books = filter.isEmpty()
+        ? bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit)
+        : bookRepository.findFilteredPage(afterId, filter.getCategoryId(), filter.getYearFrom(), filter.getYearTo(),
+            filter.getAuthor(), filter.getPublisher(), limit);
+    String next = null;
+    if (books.size() > size) {
+      books = books.subList(0, size);
+      next = PageCursor.afterId(books.getLast().getId()).encode();
+    }
+    return new BookPageResponse(books.stream().map(bookMapper::toResponse).toList(), next,
+        bookFacetIndex.facets(filter));
+  }
+
+  /**
+   * Searches title, author and publisher of all books and returns one page of results ranked by relevance.
+   * The cursor carries the ranking statistics of the first page, so that following pages rank unchanged books
+   * the same way even if other books were added or removed in between.
+   *
+   * @param query    the search terms
+   * @param cursor   the opaque cursor returned with the previous page, or {@code null} for the first page
+   * @param pageSize the requested page size, or {@code null} for the default page size
+   * @return a {@link CursorPageResponse} with the matching books of the page and the cursor of the next page
+   * @throws IllegalArgumentException if the query is blank or the cursor or the page size is invalid
+   */
+  @SingleFlight
+  @Transactional(readOnly = true)
+  public CursorPageResponse<BookResponse> search(String query, String cursor, Integer pageSize) {
+    if (query == null || query.isBlank()) {
+      throw new IllegalArgumentException("Search query must not be blank");
+    }
+    int size = paginationProperties.resolvePageSize(pageSize);
+    SearchCursor after = cursor == null ? new SearchCursor(null, null) : decodeSearchCursor(cursor);
+
+    SearchResults results = bookSearchIndex.search(query, after.hit(), after.stats(), size + 1);
+    List<SearchHit> hits = results.getHits();
+    String next = null;
+    if (hits.size() > size) {
+      hits = hits.subList(0, size);
+      next = encodeSearchCursor(hits.getLast(), results.getStats());
+    }
+
+    Map<Long, BookEntity> books = bookRepository.findByIdIn(hits.stream().map(SearchHit::getBookId).toList())
+        .stream()
+        .collect(Collectors.toMap(BookEntity::getId, Function.identity()));
+    List<BookResponse> items = hits.stream()
+        .map(hit -> books.get(hit.getBookId()))
+        .filter(Objects::nonNull)
         .map(bookMapper::toResponse)
         .toList();
+    return new CursorPageResponse<>(items, next);
   }
 
   /**
-   * Retrieves a book by its ID.
+   * Writes all books as newline-delimited JSON to the given output stream.
+   * Books are streamed from the database and detached once written, so memory usage
+   * does not grow with the size of the catalog. The export stops as soon as writing
+   * fails, e.g. because the client disconnected.
+   *
+   * @param out the stream to write the NDJSON lines to
+   * @throws IOException if writing to the output stream fails or the export is interrupted
+   */
+  @Transactional(readOnly = true)
+  public void exportAll(OutputStream out) throws IOException {
+    ObjectWriter writer = objectMapper.writerFor(BookResponse.class);
+    try (Stream<BookEntity> books = bookRepository.streamAll()) {
+      Iterator<BookEntity> iterator = books.iterator();
+      int written = 0;
+      while (iterator.hasNext()) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedIOException("Book export interrupted");
+        }
+        BookEntity book = iterator.next();
+        out.write(writer.writeValueAsBytes(bookMapper.toResponse(book)));
+        out.write('\n');
+        entityManager.detach(book);
+        if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+          out.flush();
+        }
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Retrieves a book by its ID. Results are cached until the book is updated or deleted.
    *
    * @param id the ID of the book
    * @return the corresponding {@link BookResponse}
    * @throws EntityNotFoundException if no book with the given ID exists
    */
+  @Cacheable(CacheConfig.BOOKS)
+  @SingleFlight
+  @Transactional(readOnly = true)
   public BookResponse getById(Long id) {
-    BookEntity entity = bookRepository.findById(id)
-        .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + id));
+    requireBook(id);
+    BookEntity entity = bookRepository.findWithCategoryById(id)
+        .orElseThrow(() -> bookNotFound(id));
     return bookMapper.toResponse(entity);
   }
 
@@ -71,22 +287,42 @@ public class BookService {
    * @param request the updated book details
    * @return the updated {@link BookResponse}
    * @throws EntityNotFoundException if the book or the specified category does not exist
+   * @throws IllegalArgumentException if the number of copies is negative
+   * @throws ConflictException        if fewer copies are requested than are on loan
    */
+  @CachePut(cacheNames = CacheConfig.BOOKS, key = "#id")
+  @Transactional
   public BookResponse update(Long id, BookRequest request) {
+    requireBook(id);
     BookEntity entity = bookRepository.findById(id)
-        .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + id));
+        .orElseThrow(() -> bookNotFound(id));
 
     entity.setTitle(request.getTitle());
     entity.setAuthor(request.getAuthor());
     entity.setPublisher(request.getPublisher());
     entity.setPublishingYear(request.getPublishingYear());
+    if (request.getCopies() != null) {
+      requireNonNegativeCopies(request.getCopies());
+      // Copies on loan stay on loan; concurrent checkouts bump the version, so a stale count fails the update
+      int onLoan = entity.getCopies() - entity.getAvailableCopies();
+      if (request.getCopies() < onLoan) {
+        throw new ConflictException(onLoan + " copies of book " + id + " are on loan");
+      }
+      entity.setCopies(request.getCopies());
+      entity.setAvailableCopies(request.getCopies() - onLoan);
+    }
 
     if (request.getCategoryId() != null) {
+      requireCategory(request.getCategoryId());
       CategoryEntity category = categoryRepository.findById(request.getCategoryId())
-          .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + request.getCategoryId()));
+          .orElseThrow(() -> categoryNotFound(request.getCategoryId()));
+      evictCategory(entity.getCategory());
+      evictCategory(category);
       entity.setCategory(category);
     }
-    return bookMapper.toResponse(bookRepository.save(entity));
+    BookEntity saved = bookRepository.save(entity);
+    indexAfterCommit(saved);
+    return bookMapper.toResponse(saved);
   }
 
   /**
@@ -94,11 +330,137 @@ public class BookService {
    *
    * @param id the ID of the book to delete
    * @throws EntityNotFoundException if the book does not exist
+   * @throws ConflictException       if a copy of the book is on loan
    */
+  @CacheEvict(CacheConfig.BOOKS)
+  @Transactional
   public void delete(Long id) {
-    if (!bookRepository.existsById(id)) {
-      throw new EntityNotFoundException("Book not found with id: " + id);
+    requireBook(id);
+    BookEntity entity = bookRepository.findById(id)
+        .orElseThrow(() -> bookNotFound(id));
+    if (loanRepository.existsByBookIdAndReturnedAtIsNull(id)) {
+      throw new ConflictException("Copies of book " + id + " are on loan");
     }
-    bookRepository.deleteById(id);
+    bookRepository.delete(entity);
+    Transactions.afterCommit(() -> {
+      bookSearchIndex.remove(id);
+      bookFacetIndex.remove(id);
+    });
+    evictCategory(entity.getCategory());
+  }
+
+  /**
+   * Adds a book to the search and facet indexes once the transaction has committed,
+   * so that books of rolled back transactions never become visible in search results or facet counts.
+   */
+  private void indexAfterCommit(BookEntity book) {
+    Transactions.afterCommit(() -> {
+      bookSearchIndex.index(book);
+      bookFacetIndex.index(book);
+    });
+  }
+
+  /**
+   * Evicts a category from the cache, because cached categories carry the number of their books.
+   * The category is evicted again after commit, in case a concurrent read cached the old count in between.
+   */
+  private void evictCategory(CategoryEntity category) {
+    if (category != null) {
+      Cache categories = Objects.requireNonNull(cacheManager.getCache(CacheConfig.CATEGORIES));
+      Long categoryId = category.getId();
+      categories.evict(categoryId);
+      Transactions.afterCommit(() -> categories.evict(categoryId));
+    }
+  }
+
+  private static void requireNonNegativeCopies(Integer copies) {
+    if (copies != null && copies < 0) {
+      throw new IllegalArgumentException("Number of copies must not be negative");
+    }
+  }
+
+  /**
+   * Fails fast if the existence index rules out the book, without querying the database.
+   */
+  private void requireBook(Long id) {
+    if (id != null && !existenceIndex.mightContainBook(id)) {
+      throw bookNotFound(id);
+    }
+  }
+
+  /**
+   * Fails fast if the existence index rules out the category, without querying the database.
+   */
+  private void requireCategory(Long id) {
+    if (id != null && !existenceIndex.mightContainCategory(id)) {
+      throw categoryNotFound(id);
+    }
+  }
+
+  private static ResourceNotFoundException bookNotFound(Long id) {
+    return new ResourceNotFoundException("Book not found with id: " + id);
+  }
+
+  private static ResourceNotFoundException categoryNotFound(Long id) {
+    return new ResourceNotFoundException("Category not found with id: " + id);
+  }
+
+  /**
+   * Validates a single item of a bulk request.
+   *
+   * @return the validation error, or {@code null} if the item is valid
+   */
+  private String validate(BookRequest request, Map<Long, CategoryEntity> categories) {
+    if (request == null) {
+      return "Book must not be null";
+    }
+    String violations = validator.validate(request).stream()
+        .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .collect(Collectors.joining(", "));
+    if (!violations.isEmpty()) {
+      return violations;
+    }
+    if (request.getCategoryId() == null) {
+      return "categoryId: must not be null";
+    }
+    if (!categories.containsKey(request.getCategoryId())) {
+      return "Category not found with id: " + request.getCategoryId();
+    }
+    return null;
+  }
+
+  /**
+   * Encodes the last hit of a search page and the ranking statistics of the search as the sort key
+   * {@code score:docCount:tokenCount:docFrequency,...}.
+   */
+  private static String encodeSearchCursor(SearchHit last, RankingStats stats) {
+    String docFrequencies = Arrays.stream(stats.getDocFrequencies())
+        .mapToObj(Integer::toString)
+        .collect(Collectors.joining(","));
+    String sortKey = last.getScore() + ":" + stats.getDocCount() + ":" + stats.getTokenCount() + ":" + docFrequencies;
+    return new PageCursor(sortKey, last.getBookId()).encode();
+  }
+
+  private static SearchCursor decodeSearchCursor(String cursor) {
+    PageCursor decoded = PageCursor.decode(cursor);
+    String[] sortKey = decoded.getSortKey() == null ? new String[0] : decoded.getSortKey().split(":", -1);
+    if (sortKey.length != 4) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+    try {
+      SearchHit hit = new SearchHit(decoded.getLastId(), Float.parseFloat(sortKey[0]));
+      int[] docFrequencies = Arrays.stream(sortKey[3].split(",")).mapToInt(Integer::parseInt).toArray();
+      return new SearchCursor(hit,
+          new RankingStats(Integer.parseInt(sortKey[1]), Long.parseLong(sortKey[2]), docFrequencies));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+  }
+
+  /**
+   * Position and ranking statistics of a search page, both {@code null} for the first page.
+   */
+  private record SearchCursor(SearchHit hit, RankingStats stats) {
   }
-}
\ No newline at end of file
+}
@@ -1,14 +1,40 @@
 package de.moritzerhard.libraryrestapi.service;
 
+import de.moritzerhard.libraryrestapi.concurrency.SingleFlight;
+import de.moritzerhard.libraryrestapi.config.CacheConfig;
+import de.moritzerhard.libraryrestapi.config.PaginationProperties;
 import de.moritzerhard.libraryrestapi.dto.request.CategoryRequest;
 import de.moritzerhard.libraryrestapi.dto.response.CategoryResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CursorPageResponse;
 import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import de.moritzerhard.libraryrestapi.exception.ConflictException;
+import de.moritzerhard.libraryrestapi.exception.ResourceNotFoundException;
 import de.moritzerhard.libraryrestapi.mapper.CategoryMapper;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
 import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
+import de.moritzerhard.libraryrestapi.repository.CategoryRepository.BookCount;
+import de.moritzerhard.libraryrestapi.repository.CategoryRepository.CategoryVersion;
+import de.moritzerhard.libraryrestapi.repository.LoanRepository;
+import de.moritzerhard.libraryrestapi.search.BookFacetIndex;
+import de.moritzerhard.libraryrestapi.search.BookSearchIndex;
+import de.moritzerhard.libraryrestapi.search.ExistenceIndex;
+import de.moritzerhard.libraryrestapi.utils.ETags;
+import de.moritzerhard.libraryrestapi.utils.PageCursor;
+import de.moritzerhard.libraryrestapi.utils.Transactions;
 import jakarta.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for managing book categories, providing CRUD operations.
@@ -17,7 +43,14 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class CategoryService {
   private final CategoryRepository categoryRepository;
+  private final BookRepository bookRepository;
+  private final LoanRepository loanRepository;
+  private final BookSearchIndex bookSearchIndex;
+  private final BookFacetIndex bookFacetIndex;
   private final CategoryMapper categoryMapper;
+  private final PaginationProperties paginationProperties;
+  private final CacheManager cacheManager;
+  private final ExistenceIndex existenceIndex;
 
   /**
    * Creates a new category.
@@ -25,52 +58,102 @@ public class CategoryService {
    * @param request the category creation request containing name and description
    * @return the created {@link CategoryResponse}
    */
+  @Transactional
   public CategoryResponse create(CategoryRequest request) {
     CategoryEntity entity = categoryMapper.toEntity(request);
-    return categoryMapper.toResponse(categoryRepository.save(entity));
+    return categoryMapper.toResponse(categoryRepository.save(entity), 0);
   }
 
   /**
-   * Retrieves all categories.
+   * Retrieves one page of categories ordered by id, starting after the given cursor.
    *
-   * @return a list of {@link CategoryResponse} objects
+   * @param cursor   the opaque cursor returned with the previous page, or {@code null} for the first page
+   * @param pageSize the requested page size, or {@code null} for the default page size
+   * @return a {@link CursorPageResponse} with the categories of the page and the cursor of the next page
+   * @throws IllegalArgumentException if the cursor or the page size is invalid
    */
-  public List<CategoryResponse> getAll() {
-    return categoryRepository.findAll()
-        .stream()
-        .map(categoryMapper::toResponse)
+  @SingleFlight
+  @Transactional(readOnly = true)
+  public CursorPageResponse<CategoryResponse> getAll(String cursor, Integer pageSize) {
+    int size = paginationProperties.resolvePageSize(pageSize);
+    long afterId = cursor == null ? 0L : PageCursor.decode(cursor).getLastId();
+
+    // Fetch one extra row to find out whether another page follows
+    List<CategoryEntity> categories = categoryRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1));
+    String next = null;
+    if (categories.size() > size) {
+      categories = categories.subList(0, size);
+      next = PageCursor.afterId(categories.getLast().getId()).encode();
+    }
+
+    // Count the books of the whole page with one grouped query instead of loading the books collections
+    Map<Long, Long> bookCounts = categories.isEmpty() ? Map.of()
+        : categoryRepository.countBooksByCategoryIds(categories.stream().map(CategoryEntity::getId).toList())
+            .stream()
+            .collect(Collectors.toMap(BookCount::getCategoryId, BookCount::getBookCount));
+    List<CategoryResponse> items = categories.stream()
+        .map(category -> categoryMapper.toResponse(category,
+            bookCounts.getOrDefault(category.getId(), 0L).intValue()))
         .toList();
+    return new CursorPageResponse<>(items, next);
   }
 
   /**
-   * Retrieves a category by its ID.
+   * Retrieves a category by its ID. Results are cached until the category or one of its books changes.
    *
    * @param id the ID of the category
    * @return the corresponding {@link CategoryResponse}
    * @throws EntityNotFoundException if no category with the given ID exists
    */
+  @Cacheable(CacheConfig.CATEGORIES)
+  @SingleFlight
+  @Transactional(readOnly = true)
   public CategoryResponse getById(Long id) {
+    requireCategory(id);
     CategoryEntity entity = categoryRepository.findById(id)
-        .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
-    return categoryMapper.toResponse(entity);
+        .orElseThrow(() -> categoryNotFound(id));
+    return categoryMapper.toResponse(entity, (int) categoryRepository.countBooks(id));
   }
 
   /**
-   * Updates an existing category with new data.
+   * Computes the entity tag of a category from its version and its number of books,
+   * without loading the category itself.
+   *
+   * @param id the ID of the category
+   * @return the quoted entity tag of the category representation
+   * @throws EntityNotFoundException if no category with the given ID exists
+   */
+  @SingleFlight
+  @Transactional(readOnly = true)
+  public String getETag(Long id) {
+    requireCategory(id);
+    CategoryVersion version = categoryRepository.findVersionById(id)
+        .orElseThrow(() -> categoryNotFound(id));
+    return ETags.fromVersions(version.getVersion(), version.getBookCount());
+  }
+
+  /**
+   * Updates an existing category with new data. Cached books of the category are evicted,
+   * because they carry the category name.
    *
    * @param id      the ID of the category to update
    * @param request the updated category details
    * @return the updated {@link CategoryResponse}
    * @throws EntityNotFoundException if the category does not exist
    */
+  @CachePut(cacheNames = CacheConfig.CATEGORIES, key = "#id")
+  @Transactional
   public CategoryResponse update(Long id, CategoryRequest request) {
+    requireCategory(id);
     CategoryEntity existing = categoryRepository.findById(id)
-        .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
+        .orElseThrow(() -> categoryNotFound(id));
 
     existing.setName(request.getName());
     existing.setDescription(request.getDescription());
+    CategoryEntity saved = categoryRepository.save(existing);
+    evictBooks(bookRepository.findIdsByCategoryId(id));
 
-    return categoryMapper.toResponse(categoryRepository.save(existing));
+    return categoryMapper.toResponse(saved, (int) categoryRepository.countBooks(id));
   }
 
   /**
@@ -78,12 +161,48 @@ public class CategoryService {
    *
    * @param id the ID of the category to delete
    * @throws EntityNotFoundException if the category does not exist
+   * @throws ConflictException       if a copy of a book of the category is on loan
    */
+  @CacheEvict(CacheConfig.CATEGORIES)
+  @Transactional
   public void delete(Long id) {
+    requireCategory(id);
     if (!categoryRepository.existsById(id)) {
-      throw new EntityNotFoundException("Category not found with id: " + id);
+      throw categoryNotFound(id);
+    }
+    if (loanRepository.existsByBookCategoryIdAndReturnedAtIsNull(id)) {
+      throw new ConflictException("Copies of books of category " + id + " are on loan");
     }
+    // Books are removed together with their category
+    List<Long> bookIds = bookRepository.findIdsByCategoryId(id);
     categoryRepository.deleteById(id);
+    Transactions.afterCommit(() -> bookIds.forEach(bookId -> {
+      bookSearchIndex.remove(bookId);
+      bookFacetIndex.remove(bookId);
+    }));
+    evictBooks(bookIds);
+  }
+
+  /**
+   * Fails fast if the existence index rules out the category, without querying the database.
+   */
+  private void requireCategory(Long id) {
+    if (!existenceIndex.mightContainCategory(id)) {
+      throw categoryNotFound(id);
+    }
+  }
+
+  private static ResourceNotFoundException categoryNotFound(Long id) {
+    return new ResourceNotFoundException("Category not found with id: " + id);
+  }
+
+  /**
+   * Evicts books from the cache, and again after commit in case a concurrent read cached their old state in between.
+   */
+  private void evictBooks(List<Long> bookIds) {
+    Cache books = Objects.requireNonNull(cacheManager.getCache(CacheConfig.BOOKS));
+    bookIds.forEach(books::evict);
+    Transactions.afterCommit(() -> bookIds.forEach(books::evict));
   }
 
 }
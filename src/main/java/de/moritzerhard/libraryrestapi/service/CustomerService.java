@@ -3,12 +3,17 @@ package de.moritzerhard.libraryrestapi.service;
 import de.moritzerhard.libraryrestapi.dto.request.CustomerRequest;
 import de.moritzerhard.libraryrestapi.dto.response.CustomerResponse;
 import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import de.moritzerhard.libraryrestapi.exception.ConflictException;
 import de.moritzerhard.libraryrestapi.mapper.CustomerMapper;
 import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
+import de.moritzerhard.libraryrestapi.repository.LoanRepository;
+import de.moritzerhard.libraryrestapi.search.ExistenceIndex;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for managing customers, including registration, retrieval, update, and deletion.
@@ -19,8 +24,10 @@ import org.springframework.stereotype.Service;
 public class CustomerService {
 
   private final CustomerRepository customerRepository;
+  private final LoanRepository loanRepository;
   private final CustomerMapper customerMapper;
   private final PasswordEncoder passwordEncoder;
+  private final ExistenceIndex existenceIndex;
 
   /**
    * Creates a new customer account.
@@ -30,13 +37,15 @@ public class CustomerService {
    * @throws IllegalArgumentException if an account with the same email already exists
    */
   public CustomerResponse register(CustomerRequest request) {
-    if (customerRepository.findByEmail(request.getEmail()).isPresent()) {
+    // Most new emails are ruled out by the existence index without a query
+    if (existenceIndex.mightContainCustomerEmail(request.getEmail())
+        && customerRepository.findByEmail(request.getEmail()).isPresent()) {
       throw new IllegalArgumentException("Email already registered: " + request.getEmail());
     }
 
     CustomerEntity entity = customerMapper.toEntity(request);
     entity.setPassword(passwordEncoder.encode(request.getPassword()));
-    return customerMapper.toResponse(customerRepository.save(entity));
+    return customerMapper.toResponse(save(entity));
   }
 
   /**
@@ -46,6 +55,7 @@ public class CustomerService {
    * @return the corresponding {@link CustomerResponse}
    * @throws EntityNotFoundException if the customer does not exist
    */
+  @Transactional(readOnly = true)
   public CustomerResponse getById(Long id) {
     CustomerEntity entity = customerRepository.findById(id)
         .orElseThrow(() -> new EntityNotFoundException("Customer not found with id: " + id));
@@ -59,6 +69,7 @@ public class CustomerService {
    * @param request the updated customer details
    * @return the updated {@link CustomerResponse}
    * @throws EntityNotFoundException if the customer does not exist
+   * @throws IllegalArgumentException if another account with the new email already exists
    */
   public CustomerResponse update(Long id, CustomerRequest request) {
     CustomerEntity entity = customerRepository.findById(id)
@@ -69,7 +80,7 @@ public class CustomerService {
     if (request.getPassword() != null && !request.getPassword().isBlank()) {
       entity.setPassword(passwordEncoder.encode(request.getPassword()));
     }
-    return customerMapper.toResponse(customerRepository.save(entity));
+    return customerMapper.toResponse(save(entity));
   }
 
   /**
@@ -77,11 +88,29 @@ public class CustomerService {
    *
    * @param id the ID of the customer to delete
    * @throws EntityNotFoundException if the customer does not exist
+   * @throws ConflictException       if the customer has books on loan
    */
+  @Transactional
   public void delete(Long id) {
     if (!customerRepository.existsById(id)) {
       throw new EntityNotFoundException("Customer not found with id: " + id);
     }
+    if (loanRepository.existsByCustomerIdAndReturnedAtIsNull(id)) {
+      throw new ConflictException("Customer " + id + " has books on loan");
+    }
     customerRepository.deleteById(id);
   }
+
+  /**
+   * Saves a customer and reports a violation of the unique email constraint as an already registered email.
+   * The existence index does not see emails registered through other instances until its next refill,
+   * so the constraint is the final check for duplicates.
+   */
+  private CustomerEntity save(CustomerEntity entity) {
+    try {
+      return customerRepository.saveAndFlush(entity);
+    } catch (DataIntegrityViolationException e) {
+      throw new IllegalArgumentException("Email already registered: " + entity.getEmail());
+    }
+  }
 }
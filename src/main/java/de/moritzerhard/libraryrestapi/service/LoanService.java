@@ -0,0 +1,151 @@
+package de.moritzerhard.libraryrestapi.service;
+
+import de.moritzerhard.libraryrestapi.config.CacheConfig;
+import de.moritzerhard.libraryrestapi.dto.request.LoanRequest;
+import de.moritzerhard.libraryrestapi.dto.response.LoanResponse;
+import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import de.moritzerhard.libraryrestapi.entity.LoanEntity;
+import de.moritzerhard.libraryrestapi.exception.ConflictException;
+import de.moritzerhard.libraryrestapi.exception.ResourceNotFoundException;
+import de.moritzerhard.libraryrestapi.mapper.LoanMapper;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
+import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
+import de.moritzerhard.libraryrestapi.repository.LoanRepository;
+import de.moritzerhard.libraryrestapi.search.ExistenceIndex;
+import de.moritzerhard.libraryrestapi.utils.Transactions;
+import jakarta.persistence.EntityNotFoundException;
+import java.time.Instant;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for checking out and returning copies of books.
+ * <p>
+ * A checkout takes a copy with a single conditional update of the book row, which decrements the available
+ * copies only while some are left. Concurrent checkouts of the same book are serialized by the database for
+ * just that statement and the insert of the loan, without reading the book first or locking it for longer,
+ * and can never take more copies than there are. A return marks the loan with optimistic locking, so a loan
+ * returned twice at the same time puts back only one copy. Customers borrow for themselves and can only see
+ * and return their own loans; they are identified by the email in the subject of their token.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanService {
+  private final LoanRepository loanRepository;
+  private final BookRepository bookRepository;
+  private final CustomerRepository customerRepository;
+  private final LoanMapper loanMapper;
+  private final ExistenceIndex existenceIndex;
+  private final CacheManager cacheManager;
+
+  /**
+   * Checks out a copy of a book to a customer.
+   *
+   * @param request       the id of the book
+   * @param customerEmail the email of the borrowing customer
+   * @return the created {@link LoanResponse}
+   * @throws IllegalArgumentException if the book is missing in the request
+   * @throws EntityNotFoundException  if the book or the customer does not exist
+   * @throws ConflictException        if no copy of the book is available
+   */
+  @Transactional
+  public LoanResponse checkout(LoanRequest request, String customerEmail) {
+    Long bookId = request.getBookId();
+    if (bookId == null) {
+      throw new IllegalArgumentException("Book must be given");
+    }
+    if (!existenceIndex.mightContainBook(bookId)) {
+      throw bookNotFound(bookId);
+    }
+    CustomerEntity customer = customerRepository.findByEmail(customerEmail)
+        .orElseThrow(() -> new ResourceNotFoundException("Customer not found with email: " + customerEmail));
+    if (bookRepository.checkOutCopy(bookId) == 0) {
+      if (!bookRepository.existsById(bookId)) {
+        throw bookNotFound(bookId);
+      }
+      throw new ConflictException("No copy of book " + bookId + " is available");
+    }
+
+    LoanEntity loan = new LoanEntity();
+    loan.setBook(bookRepository.getReferenceById(bookId));
+    loan.setCustomer(customer);
+    loan.setLoanedAt(Instant.now());
+    LoanResponse response = loanMapper.toResponse(loanRepository.save(loan));
+    evictBook(bookId);
+    return response;
+  }
+
+  /**
+   * Retrieves a loan by its ID.
+   *
+   * @param id            the ID of the loan
+   * @param customerEmail the email of the customer requesting the loan
+   * @return the corresponding {@link LoanResponse}
+   * @throws EntityNotFoundException if no loan with the given ID exists
+   * @throws AccessDeniedException   if the loan belongs to another customer
+   */
+  @Transactional(readOnly = true)
+  public LoanResponse getById(Long id, String customerEmail) {
+    return loanMapper.toResponse(findOwnLoan(id, customerEmail));
+  }
+
+  /**
+   * Returns the copy of a loan and puts it back on the shelf.
+   *
+   * @param id            the ID of the loan
+   * @param customerEmail the email of the customer returning the loan
+   * @return the returned {@link LoanResponse}
+   * @throws EntityNotFoundException if no loan with the given ID exists
+   * @throws AccessDeniedException   if the loan belongs to another customer
+   * @throws ConflictException       if the loan has already been returned or all copies of the book are on the shelf
+   */
+  @Transactional
+  public LoanResponse returnLoan(Long id, String customerEmail) {
+    LoanEntity loan = findOwnLoan(id, customerEmail);
+    if (loan.getReturnedAt() != null) {
+      throw new ConflictException("Loan " + id + " has already been returned");
+    }
+    loan.setReturnedAt(Instant.now());
+    // Flush the versioned update first: of two concurrent returns, only the first puts the copy back
+    loanRepository.saveAndFlush(loan);
+
+    Long bookId = loan.getBook().getId();
+    if (bookRepository.returnCopy(bookId) == 0) {
+      // Every open loan holds a copy, so all copies on the shelf means the counts are corrupt: roll back
+      throw new ConflictException("All copies of book " + bookId + " are already available");
+    }
+    evictBook(bookId);
+    return loanMapper.toResponse(loan);
+  }
+
+  private LoanEntity findOwnLoan(Long id, String customerEmail) {
+    LoanEntity loan = loanRepository.findById(id).orElseThrow(() -> loanNotFound(id));
+    if (!loan.getCustomer().getEmail().equals(customerEmail)) {
+      throw new AccessDeniedException("Loan " + id + " belongs to another customer");
+    }
+    return loan;
+  }
+
+  /**
+   * Evicts a book from the cache, because cached books carry the number of available copies.
+   * The book is evicted again after commit, in case a concurrent read cached the old count in between.
+   */
+  private void evictBook(Long bookId) {
+    Cache books = Objects.requireNonNull(cacheManager.getCache(CacheConfig.BOOKS));
+    books.evict(bookId);
+    Transactions.afterCommit(() -> books.evict(bookId));
+  }
+
+  private static ResourceNotFoundException bookNotFound(Long id) {
+    return new ResourceNotFoundException("Book not found with id: " + id);
+  }
+
+  private static ResourceNotFoundException loanNotFound(Long id) {
+    return new ResourceNotFoundException("Loan not found with id: " + id);
+  }
+}
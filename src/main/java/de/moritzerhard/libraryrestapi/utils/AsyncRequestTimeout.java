@@ -0,0 +1,37 @@
+package de.moritzerhard.libraryrestapi.utils;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+/**
+ * Replaces the async request timeout ({@code spring.mvc.async.request-timeout}) for single requests, e.g. a long
+ * streaming response, whose handler has called {@link #set(WebRequest, Duration)}. All other async requests
+ * keep the default timeout.
+ */
+public class AsyncRequestTimeout implements CallableProcessingInterceptor {
+  private static final String ATTRIBUTE = AsyncRequestTimeout.class.getName() + ".timeout";
+
+  /**
+   * Sets the timeout of the async processing the current handler is about to start.
+   *
+   * @param request the current request
+   * @param timeout the time the async processing may take
+   */
+  public static void set(WebRequest request, Duration timeout) {
+    request.setAttribute(ATTRIBUTE, timeout, RequestAttributes.SCOPE_REQUEST);
+  }
+
+  @Override
+  public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+    // The request passed here is the async request, before its processing has been started
+    if (request instanceof AsyncWebRequest asyncRequest
+        && request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Duration timeout) {
+      asyncRequest.setTimeout(timeout.toMillis());
+    }
+  }
+}
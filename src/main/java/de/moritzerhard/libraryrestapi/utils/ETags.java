@@ -0,0 +1,54 @@
+package de.moritzerhard.libraryrestapi.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Helpers for computing strong entity tags of API responses.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ETags {
+  /**
+   * Number of digest bytes kept in content based entity tags.
+   */
+  private static final int DIGEST_LENGTH = 16;
+
+  /**
+   * Builds an entity tag from the versions a representation is derived from.
+   *
+   * @param versions the versions, e.g. of an entity and of the entities it embeds
+   * @return the quoted entity tag
+   */
+  public static String fromVersions(Object... versions) {
+    return Arrays.stream(versions)
+        .map(String::valueOf)
+        .collect(Collectors.joining(".", "\"", "\""));
+  }
+
+  /**
+   * Builds an entity tag from a digest of the given content, e.g. the items of a list page.
+   * The content is digested via its {@code toString()} representation, so it must include all fields.
+   *
+   * @param parts the parts of the content
+   * @return the quoted entity tag
+   */
+  public static String fromContent(Object... parts) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (Object part : parts) {
+        digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+      }
+      byte[] hash = Arrays.copyOf(digest.digest(), DIGEST_LENGTH);
+      return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"';
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package de.moritzerhard.libraryrestapi.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.Value;
+
+/**
+ * Opaque keyset cursor pointing behind the last item of a page.
+ * The cursor consists of the id of the last seen item and, for lists that are not ordered by id,
+ * the sort key of that item. It is exchanged with clients as a URL-safe Base64 string.
+ */
+@Value
+public class PageCursor {
+  private static final char SEPARATOR = ':';
+
+  /**
+   * Sort key of the last seen item, or {@code null} if the list is ordered by id only.
+   */
+  String sortKey;
+
+  /**
+   * ID of the last seen item.
+   */
+  long lastId;
+
+  /**
+   * Creates a cursor for a list that is ordered by id only.
+   *
+   * @param lastId the id of the last item on the current page
+   * @return the cursor
+   */
+  public static PageCursor afterId(long lastId) {
+    return new PageCursor(null, lastId);
+  }
+
+  /**
+   * Encodes this cursor into its opaque string representation.
+   *
+   * @return the URL-safe Base64 encoded cursor
+   */
+  public String encode() {
+    String raw = sortKey == null ? Long.toString(lastId) : sortKey + SEPARATOR + lastId;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor previously produced by {@link #encode()}.
+   *
+   * @param cursor the opaque cursor string
+   * @return the decoded cursor
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static PageCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf(SEPARATOR);
+      if (separator < 0) {
+        return afterId(Long.parseLong(raw));
+      }
+      return new PageCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+  }
+}
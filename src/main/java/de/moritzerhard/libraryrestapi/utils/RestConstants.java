@@ -13,5 +13,6 @@ public class RestConstants {
   public static final String BOOKS = API_V1 + "/books";
   public static final String CATEGORIES = API_V1 + "/categories";
   public static final String CUSTOMERS = API_V1 + "/customers";
+  public static final String LOANS = API_V1 + "/loans";
   public static final String AUTH = API_V1 + "/auth";
 }
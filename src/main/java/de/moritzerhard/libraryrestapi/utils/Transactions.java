@@ -0,0 +1,32 @@
+package de.moritzerhard.libraryrestapi.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for running code at transaction boundaries.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class Transactions {
+
+  /**
+   * Runs an action once the current transaction has committed, or immediately if no transaction is active.
+   * The action is dropped if the transaction rolls back.
+   *
+   * @param action the action to run
+   */
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
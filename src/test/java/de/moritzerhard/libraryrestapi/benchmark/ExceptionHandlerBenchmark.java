@@ -0,0 +1,78 @@
+package de.moritzerhard.libraryrestapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.exception.GlobalExceptionHandler;
+import de.moritzerhard.libraryrestapi.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+/**
+ * Measures the error paths of the {@link GlobalExceptionHandler}: creating the exception, including its
+ * stack trace, mapping it to a response entity and serializing the error body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+  private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+  private ObjectMapper objectMapper;
+  private MethodParameter parameter;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    parameter = new MethodParameter(ExceptionHandlerBenchmark.class.getDeclaredMethod("target", BookRequest.class), 0);
+  }
+
+  @Benchmark
+  public byte[] notFound() throws JsonProcessingException {
+    EntityNotFoundException ex = new EntityNotFoundException("Book not found with id: 42");
+    return objectMapper.writeValueAsBytes(handler.handleRuntime(ex).getBody());
+  }
+
+  @Benchmark
+  public byte[] notFoundStackless() throws JsonProcessingException {
+    ResourceNotFoundException ex = new ResourceNotFoundException("Book not found with id: 42");
+    return objectMapper.writeValueAsBytes(handler.handleRuntime(ex).getBody());
+  }
+
+  @Benchmark
+  public byte[] badRequest() throws JsonProcessingException {
+    IllegalArgumentException ex = new IllegalArgumentException("Invalid cursor: abc");
+    return objectMapper.writeValueAsBytes(handler.handleIllegalArgument(ex).getBody());
+  }
+
+  @Benchmark
+  public byte[] validationFailed() throws JsonProcessingException {
+    BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new BookRequest(), "bookRequest");
+    bindingResult.addError(new FieldError("bookRequest", "title", "must not be blank"));
+    bindingResult.addError(new FieldError("bookRequest", "author", "must not be blank"));
+    MethodArgumentNotValidException ex = new MethodArgumentNotValidException(parameter, bindingResult);
+    return objectMapper.writeValueAsBytes(handler.handleValidation(ex).getBody());
+  }
+
+  @SuppressWarnings("unused")
+  private void target(BookRequest bookRequest) {
+    // Controller method stand-in for the method parameter of validation errors
+  }
+}
@@ -0,0 +1,63 @@
+package de.moritzerhard.libraryrestapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.moritzerhard.libraryrestapi.dto.response.BookResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures the JSON serialization of book lists with an object mapper configured like Spring Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+  /**
+   * Number of books in the list, from the default page size to the maximum page size and beyond.
+   */
+  @Param({"20", "100", "1000"})
+  public int size;
+
+  private ObjectWriter writer;
+  private List<BookResponse> books;
+
+  @Setup
+  public void setUp() {
+    writer = Jackson2ObjectMapperBuilder.json().build().writerFor(List.class);
+    books = IntStream.range(0, size)
+        .mapToObj(i -> {
+          BookResponse book = new BookResponse();
+          book.setId((long) i);
+          book.setTitle("Book title number " + i);
+          book.setAuthor("Author " + i % 50);
+          book.setPublisher("Publisher " + i % 7);
+          book.setPublishingYear(1950 + i % 70);
+          book.setCategoryName("Category " + i % 10);
+          book.setVersion(i % 3);
+          return book;
+        })
+        .toList();
+  }
+
+  @Benchmark
+  public byte[] serializeBooks() throws JsonProcessingException {
+    return writer.writeValueAsBytes(books);
+  }
+}
@@ -0,0 +1,74 @@
+package de.moritzerhard.libraryrestapi.benchmark;
+
+import de.moritzerhard.libraryrestapi.config.SecurityConfig;
+import de.moritzerhard.libraryrestapi.security.CachingJwtDecoder;
+import de.moritzerhard.libraryrestapi.service.AuthService;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Measures issuing a token in {@link AuthService} and decoding it with the decoder of
+ * {@link SecurityConfig#jwtDecoder()}, which caches verified tokens, compared to a plain {@link NimbusJwtDecoder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+  private AuthService authService;
+  private JwtDecoder nimbusDecoder;
+  private JwtDecoder configuredDecoder;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    byte[] secret = new byte[64];
+    new SecureRandom().nextBytes(secret);
+    SecurityConfig securityConfig = new SecurityConfig();
+    ReflectionTestUtils.setField(securityConfig, "secret", Base64.getEncoder().encodeToString(secret));
+    ReflectionTestUtils.setField(securityConfig, "jwtCacheMaximumSize", 10_000L);
+    ReflectionTestUtils.setField(securityConfig, "jwtCacheMaxTtl", Duration.ofHours(1));
+
+    authService = new AuthService(null, null, securityConfig.jwtEncoder());
+    token = authService.issueToken("reader@example.com");
+    nimbusDecoder = NimbusJwtDecoder.withSecretKey(new SecretKeySpec(secret, "HmacSHA256")).build();
+    configuredDecoder = securityConfig.jwtDecoder();
+  }
+
+  @Benchmark
+  public String encode() {
+    return authService.issueToken("reader@example.com");
+  }
+
+  @Benchmark
+  public Jwt decodeNimbus() {
+    return nimbusDecoder.decode(token);
+  }
+
+  /**
+   * Decodes the same token repeatedly, so every call after the first is served by the {@link CachingJwtDecoder}.
+   */
+  @Benchmark
+  public Jwt decodeCached() {
+    return configuredDecoder.decode(token);
+  }
+}
@@ -0,0 +1,107 @@
+package de.moritzerhard.libraryrestapi.benchmark;
+
+import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.dto.request.CustomerRequest;
+import de.moritzerhard.libraryrestapi.dto.response.BookResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CategoryResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CustomerResponse;
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import de.moritzerhard.libraryrestapi.mapper.BookMapper;
+import de.moritzerhard.libraryrestapi.mapper.BookMapperImpl;
+import de.moritzerhard.libraryrestapi.mapper.CategoryMapper;
+import de.moritzerhard.libraryrestapi.mapper.CategoryMapperImpl;
+import de.moritzerhard.libraryrestapi.mapper.CustomerMapper;
+import de.moritzerhard.libraryrestapi.mapper.CustomerMapperImpl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the MapStruct conversions between entities and DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+  private final BookMapper bookMapper = new BookMapperImpl();
+  private final CategoryMapper categoryMapper = new CategoryMapperImpl();
+  private final CustomerMapper customerMapper = new CustomerMapperImpl();
+
+  private BookEntity book;
+  private BookRequest bookRequest;
+  private CategoryEntity category;
+  private CustomerEntity customer;
+  private CustomerRequest customerRequest;
+
+  @Setup
+  public void setUp() {
+    category = new CategoryEntity();
+    category.setId(1L);
+    category.setName("Fiction");
+    category.setDescription("Novels and short stories");
+
+    book = new BookEntity();
+    book.setId(42L);
+    book.setTitle("The Left Hand of Darkness");
+    book.setAuthor("Ursula K. Le Guin");
+    book.setPublisher("Ace Books");
+    book.setPublishingYear(1969);
+    book.setCategory(category);
+
+    bookRequest = new BookRequest();
+    bookRequest.setTitle(book.getTitle());
+    bookRequest.setAuthor(book.getAuthor());
+    bookRequest.setPublisher(book.getPublisher());
+    bookRequest.setPublishingYear(book.getPublishingYear());
+    bookRequest.setCategoryId(category.getId());
+
+    customer = new CustomerEntity();
+    customer.setId(7L);
+    customer.setName("Reader");
+    customer.setEmail("reader@example.com");
+    customer.setPassword("{bcrypt}$2a$10$abcdefghijklmnopqrstuv");
+
+    customerRequest = new CustomerRequest();
+    customerRequest.setName(customer.getName());
+    customerRequest.setEmail(customer.getEmail());
+    customerRequest.setPassword("password123");
+  }
+
+  @Benchmark
+  public BookResponse bookToResponse() {
+    return bookMapper.toResponse(book);
+  }
+
+  @Benchmark
+  public BookEntity bookToEntity() {
+    return bookMapper.toEntity(bookRequest);
+  }
+
+  @Benchmark
+  public CategoryResponse categoryToResponse() {
+    return categoryMapper.toResponse(category, 12);
+  }
+
+  @Benchmark
+  public CustomerResponse customerToResponse() {
+    return customerMapper.toResponse(customer);
+  }
+
+  @Benchmark
+  public CustomerEntity customerToEntity() {
+    return customerMapper.toEntity(customerRequest);
+  }
+}
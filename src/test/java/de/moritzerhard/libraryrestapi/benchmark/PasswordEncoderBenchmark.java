@@ -0,0 +1,56 @@
+package de.moritzerhard.libraryrestapi.benchmark;
+
+import de.moritzerhard.libraryrestapi.security.ConfigurablePasswordEncoder;
+import de.moritzerhard.libraryrestapi.security.ConfigurablePasswordEncoder.Algorithm;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the encode and match paths of the {@link ConfigurablePasswordEncoder} for several
+ * algorithms and costs, to choose the configured cost against the acceptable login latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+  private static final String PASSWORD = "correct horse battery staple";
+
+  /**
+   * Algorithm and cost, separated by a colon.
+   */
+  @Param({"BCRYPT:10", "BCRYPT:12", "PBKDF2:310000", "PBKDF2:600000"})
+  public String configuration;
+
+  private ConfigurablePasswordEncoder encoder;
+  private String hash;
+
+  @Setup
+  public void setUp() {
+    String[] parts = configuration.split(":");
+    encoder = new ConfigurablePasswordEncoder(Algorithm.valueOf(parts[0]), Integer.parseInt(parts[1]));
+    hash = encoder.encode(PASSWORD);
+  }
+
+  @Benchmark
+  public String encode() {
+    return encoder.encode(PASSWORD);
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return encoder.matches(PASSWORD, hash);
+  }
+}
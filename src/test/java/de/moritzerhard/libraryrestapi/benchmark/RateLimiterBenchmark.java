@@ -0,0 +1,54 @@
+package de.moritzerhard.libraryrestapi.benchmark;
+
+import de.moritzerhard.libraryrestapi.security.RateLimiter;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead the {@link RateLimiter} adds to each request, with all threads sharing one bucket
+ * (maximum contention) or spread over many clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(4)
+public class RateLimiterBenchmark {
+  /**
+   * Number of distinct clients sending requests.
+   */
+  @Param({"1", "10000"})
+  public int clients;
+
+  private RateLimiter limiter;
+  private String[] keys;
+
+  @Setup
+  public void setUp() {
+    limiter = new RateLimiter(100, 50_000, 100_000);
+    keys = new String[clients];
+    for (int i = 0; i < clients; i++) {
+      keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+    }
+  }
+
+  @Benchmark
+  public Duration tryAcquire() {
+    return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(clients)]);
+  }
+}
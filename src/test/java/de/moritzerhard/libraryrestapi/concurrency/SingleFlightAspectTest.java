@@ -0,0 +1,174 @@
+package de.moritzerhard.libraryrestapi.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.moritzerhard.libraryrestapi.exception.ServiceUnavailableException;
+import jakarta.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class SingleFlightAspectTest {
+  private static final int FOLLOWERS = 8;
+
+  private final Catalog catalog = new Catalog();
+
+  @Test
+  @DisplayName("Concurrent calls with equal arguments share one invocation and its result")
+  void coalescesConcurrentCalls() throws Exception {
+    Catalog proxy = proxy(Duration.ofSeconds(5));
+
+    CompletableFuture<String> leader = call(() -> proxy.find(1L));
+    catalog.entered.await();
+    List<CompletableFuture<String>> followers = awaitingFollowers(() -> proxy.find(1L));
+    CompletableFuture<String> other = call(() -> proxy.find(2L));
+    catalog.release.countDown();
+
+    assertThat(leader.get()).isEqualTo("book 1");
+    for (CompletableFuture<String> follower : followers) {
+      assertThat(follower.get()).isSameAs(leader.get());
+    }
+    assertThat(other.get()).isEqualTo("book 2");
+    assertThat(catalog.invocations).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Failures of the shared invocation are propagated to every waiting caller")
+  void propagatesFailures() throws Exception {
+    Catalog proxy = proxy(Duration.ofSeconds(5));
+
+    CompletableFuture<String> leader = call(() -> proxy.find(-1L));
+    catalog.entered.await();
+    List<CompletableFuture<String>> followers = awaitingFollowers(() -> proxy.find(-1L));
+    catalog.release.countDown();
+
+    for (CompletableFuture<String> call : concat(leader, followers)) {
+      assertThatThrownBy(call::get).isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(EntityNotFoundException.class);
+    }
+    assertThat(catalog.invocations).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Waiting callers give up after the timeout, and later calls run again")
+  void timesOutWaitingCallers() throws Exception {
+    Catalog proxy = proxy(Duration.ofMillis(50));
+
+    CompletableFuture<String> leader = call(() -> proxy.find(1L));
+    catalog.entered.await();
+
+    assertThatThrownBy(() -> proxy.find(1L)).isInstanceOf(ServiceUnavailableException.class);
+    catalog.release.countDown();
+    assertThat(leader.get()).isEqualTo("book 1");
+
+    assertThat(proxy.find(1L)).isEqualTo("book 1");
+    assertThat(catalog.invocations).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Calls within a transaction are never coalesced")
+  void doesNotCoalesceWithinTransactions() throws Exception {
+    Catalog proxy = proxy(Duration.ofSeconds(5));
+
+    CompletableFuture<String> leader = call(() -> proxy.find(1L));
+    catalog.entered.await();
+    CompletableFuture<String> transactional = call(() -> {
+      TransactionSynchronizationManager.setActualTransactionActive(true);
+      try {
+        return proxy.find(1L);
+      } finally {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+      }
+    });
+    catalog.release.countDown();
+
+    assertThat(leader.get()).isEqualTo("book 1");
+    assertThat(transactional.get()).isEqualTo("book 1");
+    assertThat(catalog.invocations).hasValue(2);
+  }
+
+  private Catalog proxy(Duration timeout) {
+    AspectJProxyFactory factory = new AspectJProxyFactory(catalog);
+    factory.addAspect(new SingleFlightAspect(timeout));
+    return factory.getProxy();
+  }
+
+  private static CompletableFuture<String> call(Supplier<String> supplier) {
+    CompletableFuture<String> result = new CompletableFuture<>();
+    Thread.ofPlatform().start(() -> {
+      try {
+        result.complete(supplier.get());
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Starts callers and returns once all of them wait for the running invocation.
+   */
+  private static List<CompletableFuture<String>> awaitingFollowers(Supplier<String> supplier)
+      throws InterruptedException {
+    List<CompletableFuture<String>> results = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < FOLLOWERS; i++) {
+      CompletableFuture<String> result = new CompletableFuture<>();
+      results.add(result);
+      threads.add(Thread.ofPlatform().start(() -> {
+        try {
+          result.complete(supplier.get());
+        } catch (RuntimeException e) {
+          result.completeExceptionally(e);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      while (thread.getState() != Thread.State.TIMED_WAITING) {
+        Thread.sleep(1);
+      }
+    }
+    return results;
+  }
+
+  private static List<CompletableFuture<String>> concat(CompletableFuture<String> first,
+                                                        List<CompletableFuture<String>> rest) {
+    List<CompletableFuture<String>> all = new ArrayList<>(rest);
+    all.add(first);
+    return all;
+  }
+
+  /**
+   * Lookup that blocks its first invocation until released.
+   */
+  static class Catalog {
+    final AtomicInteger invocations = new AtomicInteger();
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    @SingleFlight
+    public String find(Long id) {
+      invocations.incrementAndGet();
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (id < 0) {
+        throw new EntityNotFoundException("Book not found with id: " + id);
+      }
+      return "book " + id;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.dto.response.BookFacetsResponse;
+import de.moritzerhard.libraryrestapi.dto.response.CursorPageResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class NativeImageConfigTest {
+  private final RuntimeHints hints = new RuntimeHints();
+
+  NativeImageConfigTest() {
+    new NativeImageConfig.Hints().registerHints(hints, getClass().getClassLoader());
+  }
+
+  @Test
+  @DisplayName("DTOs are registered for JSON binding, including generic wrappers")
+  void registersDtosForBinding() throws Exception {
+    assertThat(RuntimeHintsPredicates.reflection().onMethod(BookRequest.class.getMethod("setTitle", String.class)))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onMethod(CursorPageResponse.class.getMethod("getItems")))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(BookFacetsResponse.class)).accepts(hints);
+  }
+
+  @Test
+  @DisplayName("The second-level cache configuration is included as a resource")
+  void registersCacheConfiguration() {
+    assertThat(RuntimeHintsPredicates.resource().forResource("hibernate-cache.conf")).accepts(hints);
+  }
+}
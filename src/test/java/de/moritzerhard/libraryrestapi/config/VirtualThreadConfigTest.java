@@ -0,0 +1,51 @@
+package de.moritzerhard.libraryrestapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import de.moritzerhard.libraryrestapi.datasource.ReplicaPoolDataSource;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+
+@SpringBootTest(properties = {
+    "spring.threads.virtual.enabled=true",
+    "virtual-threads.max-jdbc-connections=2"
+})
+class VirtualThreadConfigTest {
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private AsyncTaskExecutor applicationTaskExecutor;
+
+  @Test
+  @DisplayName("Virtual-thread mode caps the JDBC pool and runs tasks on virtual threads")
+  void virtualThreadModeCapsConnectionPool() throws Exception {
+    assertThat(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(2);
+    assertThat(applicationTaskExecutor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+    assertThat(applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Virtual-thread mode caps the pools of the read replicas as well")
+  void virtualThreadModeCapsReplicaPools() {
+    HikariDataSource replica = new HikariDataSource();
+    replica.setPoolName("replica-0");
+    replica.setMaximumPoolSize(10);
+    ReplicaPoolDataSource replicaPool = new ReplicaPoolDataSource(List.of(replica), dataSource, Duration.ofSeconds(30));
+
+    MockEnvironment environment = new MockEnvironment().withProperty("virtual-threads.max-jdbc-connections", "2");
+    VirtualThreadConfig.jdbcPinningGuard(environment)
+        .postProcessAfterInitialization(replicaPool, "replicaDataSource");
+
+    assertThat(replica.getMaximumPoolSize()).isEqualTo(2);
+  }
+}
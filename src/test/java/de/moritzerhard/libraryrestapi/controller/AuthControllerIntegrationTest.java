@@ -1,5 +1,6 @@
 package de.moritzerhard.libraryrestapi.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -17,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -60,6 +62,31 @@ class AuthControllerIntegrationTest {
         .andExpect(jsonPath("$.token").exists());
   }
 
+  @Test
+  @DisplayName("Successful login replaces a hash with outdated parameters")
+  void successfulLoginRehashesOutdatedHash() throws Exception {
+    CustomerEntity user = new CustomerEntity();
+    user.setName("Legacy User");
+    user.setEmail("legacy@example.com");
+    String outdatedHash = new BCryptPasswordEncoder(4).encode("password123");
+    user.setPassword(outdatedHash);
+    customerRepository.save(user);
+
+    LoginRequest request = new LoginRequest();
+    request.setEmail("legacy@example.com");
+    request.setPassword("password123");
+
+    mockMvc.perform(post(LOGIN_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk());
+
+    String rehashed = customerRepository.findByEmail("legacy@example.com").orElseThrow().getPassword();
+    assertThat(rehashed).isNotEqualTo(outdatedHash);
+    assertThat(passwordEncoder.upgradeEncoding(rehashed)).isFalse();
+    assertThat(passwordEncoder.matches("password123", rehashed)).isTrue();
+  }
+
   @Test
   @DisplayName("Invalid password returns 401 Unauthorized")
   void invalidPasswordReturnsUnauthorized() throws Exception {
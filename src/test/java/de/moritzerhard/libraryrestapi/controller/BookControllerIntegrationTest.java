@@ -1,23 +1,36 @@
 package de.moritzerhard.libraryrestapi.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.dto.request.CategoryRequest;
 import de.moritzerhard.libraryrestapi.entity.BookEntity;
 import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
 import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import de.moritzerhard.libraryrestapi.metrics.StatementCounter;
 import de.moritzerhard.libraryrestapi.repository.BookRepository;
 import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
 import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
+import de.moritzerhard.libraryrestapi.service.CategoryService;
 import de.moritzerhard.libraryrestapi.utils.JwtTestUtils;
 import de.moritzerhard.libraryrestapi.utils.RestConstants;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -27,8 +40,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -55,6 +73,15 @@ class BookControllerIntegrationTest {
   @Autowired
   private JwtEncoder jwtEncoder;
 
+  @Autowired
+  private CategoryService categoryService;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private EntityManager entityManager;
+
   private String validToken;
   private CategoryEntity category;
   private BookEntity book;
@@ -93,7 +120,250 @@ class BookControllerIntegrationTest {
             .accept(MediaType.APPLICATION_JSON))
         .andExpect(status().isOk())
         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-        .andExpect(jsonPath("$[0].title").value("Test Book"));
+        .andExpect(jsonPath("$.items[0].title").value("Test Book"))
+        .andExpect(jsonPath("$.next").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("Get all books follows the cursor to the next page")
+  void getAllBooksFollowsCursor() throws Exception {
+    for (int i = 2; i <= 3; i++) {
+      BookEntity another = new BookEntity();
+      another.setTitle("Test Book " + i);
+      another.setAuthor("John Writer");
+      another.setPublishingYear(2023);
+      another.setCategory(category);
+      bookRepository.save(another);
+    }
+
+    MvcResult firstPage = mockMvc.perform(get(RestConstants.BOOKS)
+            .param("limit", "2")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(2))
+        .andExpect(jsonPath("$.items[0].title").value("Test Book"))
+        .andExpect(jsonPath("$.next").exists())
+        .andReturn();
+    String next = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.next");
+
+    mockMvc.perform(get(RestConstants.BOOKS)
+            .param("limit", "2")
+            .param("cursor", next)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].title").value("Test Book 3"))
+        .andExpect(jsonPath("$.next").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("Get all books loads books and their categories with a single query")
+  void getAllBooksDoesNotLoadCategoriesOneByOne() throws Exception {
+    for (int i = 1; i <= 3; i++) {
+      CategoryEntity otherCategory = new CategoryEntity();
+      otherCategory.setName("Category " + i);
+      categoryRepository.save(otherCategory);
+
+      BookEntity another = new BookEntity();
+      another.setTitle("Book in category " + i);
+      another.setAuthor("John Writer");
+      another.setCategory(otherCategory);
+      bookRepository.save(another);
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    try (StatementCounter.Scope statements = StatementCounter.open()) {
+      mockMvc.perform(get(RestConstants.BOOKS)
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(4))
+          .andExpect(jsonPath("$.items[3].categoryName").value("Category 3"));
+
+      assertThat(statements.count()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  @DisplayName("Get all books filters the list and returns facet counts of all matches")
+  void getAllBooksFiltersAndReturnsFacets() throws Exception {
+    createBookViaApi("Old Tale", "Grace Facet", 1987);
+    createBookViaApi("Older Tale", "Grace Facet", 1981);
+    createBookViaApi("New Tale", "Grace Facet", 2021);
+    createBookViaApi("Other Tale", "Henry Facet", 2024);
+    String categoryId = String.valueOf(category.getId());
+    commitTestTransaction();
+
+    try {
+      mockMvc.perform(get(RestConstants.BOOKS)
+              .param("categoryId", categoryId)
+              .param("author", "Grace Facet")
+              .param("limit", "2")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(2))
+          .andExpect(jsonPath("$.items[0].title").value("Old Tale"))
+          .andExpect(jsonPath("$.next").exists())
+          .andExpect(jsonPath("$.facets.categories['" + categoryId + "']").value(3))
+          .andExpect(jsonPath("$.facets.decades['1980']").value(2))
+          .andExpect(jsonPath("$.facets.decades['2020']").value(1))
+          .andExpect(jsonPath("$.facets.authors['Grace Facet']").value(3))
+          .andExpect(jsonPath("$.facets.authors['Henry Facet']").doesNotExist());
+
+      mockMvc.perform(get(RestConstants.BOOKS)
+              .param("categoryId", categoryId)
+              .param("yearFrom", "2000")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(3))
+          .andExpect(jsonPath("$.facets.authors['Grace Facet']").value(1))
+          .andExpect(jsonPath("$.facets.authors['Henry Facet']").value(1))
+          .andExpect(jsonPath("$.facets.decades['1980']").doesNotExist());
+    } finally {
+      deleteCommittedData();
+    }
+  }
+
+  @Test
+  @DisplayName("Get all books with a malformed cursor returns 400 Bad Request")
+  void getAllBooksWithInvalidCursorReturnsBadRequest() throws Exception {
+    mockMvc.perform(get(RestConstants.BOOKS)
+            .param("cursor", "not a cursor")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("Search books ranks matches by relevance and pages with a cursor")
+  void searchBooksRanksAndPagesResults() throws Exception {
+    createBookViaApi("Zephyrine Nights", "Ada Quill");
+    createBookViaApi("Zephyrine Zephyrine", "Ada Quill");
+    createBookViaApi("Unrelated", "Someone Else");
+    commitTestTransaction();
+
+    try {
+      MvcResult firstPage = mockMvc.perform(get(RestConstants.BOOKS + "/search")
+              .param("q", "zephyrine")
+              .param("limit", "1")
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(1))
+          .andExpect(jsonPath("$.items[0].title").value("Zephyrine Zephyrine"))
+          .andExpect(jsonPath("$.next").exists())
+          .andReturn();
+      String next = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.next");
+
+      mockMvc.perform(get(RestConstants.BOOKS + "/search")
+              .param("q", "zephyrine")
+              .param("limit", "1")
+              .param("cursor", next)
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(1))
+          .andExpect(jsonPath("$.items[0].title").value("Zephyrine Nights"))
+          .andExpect(jsonPath("$.next").doesNotExist());
+
+      // The cursor carries the ranking statistics of its query, so it cannot continue another one
+      mockMvc.perform(get(RestConstants.BOOKS + "/search")
+              .param("q", "zephyrine nights")
+              .param("cursor", next))
+          .andExpect(status().isBadRequest());
+    } finally {
+      deleteCommittedData();
+    }
+  }
+
+  @Test
+  @DisplayName("Search books reflects updates and deletes")
+  void searchBooksReflectsUpdatesAndDeletes() throws Exception {
+    long id = createBookViaApi("Quokka Handbook", "Ben Marsupial");
+    // Books are indexed once their transaction has committed
+    mockMvc.perform(get(RestConstants.BOOKS + "/search").param("q", "quokka"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(0));
+    commitTestTransaction();
+
+    try {
+      mockMvc.perform(get(RestConstants.BOOKS + "/search").param("q", "quokka"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items[0].id").value(id));
+
+      BookRequest update = new BookRequest();
+      update.setTitle("Wombat Handbook");
+      update.setAuthor("Ben Marsupial");
+      update.setCategoryId(category.getId());
+      mockMvc.perform(put(RestConstants.BOOKS + "/" + id)
+              .header("Authorization", validToken)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(update)))
+          .andExpect(status().isOk());
+
+      mockMvc.perform(get(RestConstants.BOOKS + "/search").param("q", "quokka"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(0));
+      mockMvc.perform(get(RestConstants.BOOKS + "/search").param("q", "wombat marsupial"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items[0].id").value(id));
+
+      mockMvc.perform(delete(RestConstants.BOOKS + "/" + id)
+              .header("Authorization", validToken))
+          .andExpect(status().isNoContent());
+      mockMvc.perform(get(RestConstants.BOOKS + "/search").param("q", "wombat"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(0));
+    } finally {
+      deleteCommittedData();
+    }
+  }
+
+  @Test
+  @DisplayName("Search books with a blank query returns 400 Bad Request")
+  void searchBooksWithBlankQueryReturnsBadRequest() throws Exception {
+    mockMvc.perform(get(RestConstants.BOOKS + "/search").param("q", " "))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("Export books streams one JSON object per line")
+  void exportBooksStreamsNdjson() throws Exception {
+    // The export runs on an async thread, so its data has to be committed
+    TransactionTemplate committed = new TransactionTemplate(transactionManager);
+    committed.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    CategoryEntity exportCategory = committed.execute(status -> {
+      CategoryEntity c = new CategoryEntity();
+      c.setName("Export");
+      categoryRepository.save(c);
+      for (int i = 1; i <= 2; i++) {
+        BookEntity b = new BookEntity();
+        b.setTitle("Exported Book " + i);
+        b.setAuthor("Export Author");
+        b.setCategory(c);
+        bookRepository.save(b);
+      }
+      return c;
+    });
+
+    try {
+      MvcResult result = mockMvc.perform(get(RestConstants.BOOKS + "/export"))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      // The export gets its own timeout instead of the default of all async requests
+      assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+      String body = mockMvc.perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+          .andReturn().getResponse().getContentAsString();
+
+      List<String> exported = body.lines()
+          .filter(line -> line.contains("Export Author"))
+          .toList();
+      assertThat(exported).hasSize(2);
+      assertThat(objectMapper.readTree(exported.getFirst()).get("title").asText()).isEqualTo("Exported Book 1");
+      assertThat(objectMapper.readTree(exported.getFirst()).get("categoryName").asText()).isEqualTo("Export");
+    } finally {
+      committed.executeWithoutResult(status -> categoryRepository.deleteById(exportCategory.getId()));
+    }
   }
 
   @Test
@@ -106,6 +376,53 @@ class BookControllerIntegrationTest {
         .andExpect(jsonPath("$.categoryName").value("Fiction"));
   }
 
+  @Test
+  @DisplayName("Get book by ID answers a matching If-None-Match with 304 until the book or its category changes")
+  void getBookByIdSupportsConditionalRequests() throws Exception {
+    String eTag = mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    // The ETag comes from the cached book, so a revalidation does not query the database
+    try (StatementCounter.Scope statements = StatementCounter.open()) {
+      mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId())
+              .header("If-None-Match", eTag))
+          .andExpect(status().isNotModified())
+          .andExpect(content().string(""));
+
+      assertThat(statements.count()).isZero();
+    }
+
+    // Renaming the category changes the book representation
+    CategoryRequest rename = new CategoryRequest();
+    rename.setName("Renamed Fiction");
+    categoryService.update(category.getId(), rename);
+    entityManager.flush();
+    mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId())
+            .header("If-None-Match", eTag))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", not(eTag)));
+  }
+
+  @Test
+  @DisplayName("Get all books answers a matching If-None-Match with 304")
+  void getAllBooksSupportsConditionalRequests() throws Exception {
+    String eTag = mockMvc.perform(get(RestConstants.BOOKS))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get(RestConstants.BOOKS)
+            .header("If-None-Match", eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    createBookViaApi("Etag Novel", "Ellen Tag");
+    mockMvc.perform(get(RestConstants.BOOKS)
+            .header("If-None-Match", eTag))
+        .andExpect(status().isOk());
+  }
+
   @Test
   @DisplayName("Create book without token returns 401 Unauthorized")
   void createBookWithoutAuthReturnsUnauthorized() throws Exception {
@@ -141,6 +458,70 @@ class BookControllerIntegrationTest {
         .andExpect(jsonPath("$.author").value("Secure Author"));
   }
 
+  @Test
+  @DisplayName("Create book with a negative number of copies returns 400 Bad Request")
+  void createBookWithNegativeCopiesReturnsBadRequest() throws Exception {
+    BookRequest request = new BookRequest();
+    request.setTitle("Negative Book");
+    request.setAuthor("Minus Author");
+    request.setCopies(-1);
+    request.setCategoryId(category.getId());
+
+    mockMvc.perform(post(RestConstants.BOOKS)
+            .header("Authorization", validToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Number of copies must not be negative"));
+  }
+
+  @Test
+  @DisplayName("Bulk create inserts valid books in one batch and reports invalid items")
+  void createBooksInBulkReportsInvalidItems() throws Exception {
+    List<BookRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      BookRequest request = new BookRequest();
+      request.setTitle("Bulk Book " + i);
+      request.setAuthor("Bulk Author");
+      request.setPublishingYear(2000 + i);
+      request.setCategoryId(category.getId());
+      requests.add(request);
+    }
+    requests.get(1).setTitle(" ");
+    requests.get(3).setCategoryId(-1L);
+    entityManager.flush();
+    entityManager.clear();
+
+    try (StatementCounter.Scope statements = StatementCounter.open()) {
+      mockMvc.perform(post(RestConstants.BOOKS + "/bulk")
+              .header("Authorization", validToken)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(requests)))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.created.length()").value(3))
+          .andExpect(jsonPath("$.created[2].title").value("Bulk Book 4"))
+          .andExpect(jsonPath("$.created[2].categoryName").value(category.getName()))
+          .andExpect(jsonPath("$.errors.length()").value(2))
+          .andExpect(jsonPath("$.errors[0].index").value(1))
+          .andExpect(jsonPath("$.errors[0].error").value("title: must not be blank"))
+          .andExpect(jsonPath("$.errors[1].index").value(3))
+          .andExpect(jsonPath("$.errors[1].error").value("Category not found with id: -1"));
+
+      // One category lookup, at most one sequence call and a single batched insert
+      assertThat(statements.count()).isLessThanOrEqualTo(3);
+    }
+    assertThat(bookRepository.count()).isEqualTo(4);
+  }
+
+  @Test
+  @DisplayName("Bulk create without JWT returns 401 Unauthorized")
+  void createBooksInBulkWithoutAuthReturnsUnauthorized() throws Exception {
+    mockMvc.perform(post(RestConstants.BOOKS + "/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[]"))
+        .andExpect(status().isUnauthorized());
+  }
+
   @Test
   @DisplayName("Update book with valid JWT returns 200 OK")
   void updateBookWithAuthReturnsOk() throws Exception {
@@ -166,4 +547,54 @@ class BookControllerIntegrationTest {
             .header("Authorization", validToken))
         .andExpect(status().isNoContent());
   }
+
+  @Test
+  @DisplayName("Get book by unknown ID returns 404 Not Found without querying the database")
+  void getBookByUnknownIdReturnsNotFoundWithoutQuery() throws Exception {
+    try (StatementCounter.Scope statements = StatementCounter.open()) {
+      mockMvc.perform(get(RestConstants.BOOKS + "/987654321"))
+          .andExpect(status().isNotFound())
+          .andExpect(jsonPath("$.error").value("Book not found with id: 987654321"));
+
+      assertThat(statements.count()).isZero();
+    }
+  }
+
+  private long createBookViaApi(String title, String author) throws Exception {
+    return createBookViaApi(title, author, 2020);
+  }
+
+  private long createBookViaApi(String title, String author, int publishingYear) throws Exception {
+    BookRequest request = new BookRequest();
+    request.setTitle(title);
+    request.setAuthor(author);
+    request.setPublishingYear(publishingYear);
+    request.setCategoryId(category.getId());
+
+    MvcResult result = mockMvc.perform(post(RestConstants.BOOKS)
+            .header("Authorization", validToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isCreated())
+        .andReturn();
+    return ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+  }
+
+  /**
+   * Commits the data created so far, because the search and facet indexes are only updated after commit.
+   * Later requests of the test run in their own transactions, so their data has to be removed with
+   * {@link #deleteCommittedData()}.
+   */
+  private void commitTestTransaction() {
+    TestTransaction.flagForCommit();
+    TestTransaction.end();
+  }
+
+  /**
+   * Deletes the committed test category together with its books, and the test user.
+   */
+  private void deleteCommittedData() {
+    categoryService.delete(category.getId());
+    customerRepository.findByEmail("booktester@example.com").ifPresent(customerRepository::delete);
+  }
 }
@@ -1,5 +1,6 @@
 package de.moritzerhard.libraryrestapi.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -9,9 +10,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
 import de.moritzerhard.libraryrestapi.dto.request.CategoryRequest;
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
 import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
 import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import de.moritzerhard.libraryrestapi.metrics.StatementCounter;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
 import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
 import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
 import de.moritzerhard.libraryrestapi.utils.JwtTestUtils;
@@ -41,6 +46,9 @@ class CategoryControllerIntegrationTest {
   @Autowired
   private CategoryRepository categoryRepository;
 
+  @Autowired
+  private BookRepository bookRepository;
+
   @Autowired
   private CustomerRepository customerRepository;
 
@@ -78,7 +86,78 @@ class CategoryControllerIntegrationTest {
             .accept(MediaType.APPLICATION_JSON))
         .andExpect(status().isOk())
         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-        .andExpect(jsonPath("$[0].name").value("History"));
+        .andExpect(jsonPath("$.items[0].name").value("History"))
+        .andExpect(jsonPath("$.next").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("Get all categories caps the page size and returns a cursor")
+  void getAllCategoriesReturnsCursorForNextPage() throws Exception {
+    CategoryEntity another = new CategoryEntity();
+    another.setName("Science");
+    categoryRepository.save(another);
+
+    mockMvc.perform(get(RestConstants.CATEGORIES)
+            .param("limit", "1")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].name").value("History"))
+        .andExpect(jsonPath("$.next").exists());
+  }
+
+  @Test
+  @DisplayName("Get categories reports the number of books per category")
+  void getCategoriesReportsBookCount() throws Exception {
+    for (int i = 1; i <= 2; i++) {
+      BookEntity book = new BookEntity();
+      book.setTitle("History Book " + i);
+      book.setAuthor("Historian");
+      book.setCategory(existingCategory);
+      bookRepository.save(book);
+    }
+    CategoryEntity empty = new CategoryEntity();
+    empty.setName("Empty");
+    categoryRepository.save(empty);
+
+    mockMvc.perform(get(RestConstants.CATEGORIES)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].bookCount").value(2))
+        .andExpect(jsonPath("$.items[1].bookCount").value(0));
+
+    mockMvc.perform(get(RestConstants.CATEGORIES + "/" + existingCategory.getId())
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.bookCount").value(2));
+  }
+
+  @Test
+  @DisplayName("Get all categories counts the books of all categories with a single query")
+  void getAllCategoriesDoesNotCountBooksOneByOne() throws Exception {
+    for (int i = 1; i <= 3; i++) {
+      CategoryEntity other = new CategoryEntity();
+      other.setName("Counted " + i);
+      categoryRepository.save(other);
+
+      BookEntity book = new BookEntity();
+      book.setTitle("Counted Book " + i);
+      book.setAuthor("Counter");
+      book.setCategory(other);
+      bookRepository.save(book);
+    }
+    bookRepository.flush();
+
+    try (StatementCounter.Scope statements = StatementCounter.open()) {
+      mockMvc.perform(get(RestConstants.CATEGORIES)
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(4))
+          .andExpect(jsonPath("$.items[3].bookCount").value(1));
+
+      // One query for the page of categories and one for the book counts of the page
+      assertThat(statements.count()).isEqualTo(2);
+    }
   }
 
   @Test
@@ -91,6 +170,78 @@ class CategoryControllerIntegrationTest {
         .andExpect(jsonPath("$.description").value("Books about history"));
   }
 
+  @Test
+  @DisplayName("Get category by ID is cached until one of its books changes")
+  void getCategoryByIdIsCachedUntilBooksChange() throws Exception {
+    mockMvc.perform(get(RestConstants.CATEGORIES + "/" + existingCategory.getId()))
+        .andExpect(jsonPath("$.bookCount").value(0));
+
+    // Changes that bypass the service are not visible while the category is cached
+    existingCategory.setDescription("Changed behind the cache");
+    categoryRepository.save(existingCategory);
+    mockMvc.perform(get(RestConstants.CATEGORIES + "/" + existingCategory.getId()))
+        .andExpect(jsonPath("$.description").value("Books about history"));
+
+    BookRequest book = new BookRequest();
+    book.setTitle("Cached History");
+    book.setAuthor("Historian");
+    book.setCategoryId(existingCategory.getId());
+    mockMvc.perform(post(RestConstants.BOOKS)
+            .header("Authorization", validToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isCreated());
+
+    mockMvc.perform(get(RestConstants.CATEGORIES + "/" + existingCategory.getId()))
+        .andExpect(jsonPath("$.bookCount").value(1))
+        .andExpect(jsonPath("$.description").value("Changed behind the cache"));
+  }
+
+  @Test
+  @DisplayName("Renaming a category evicts its cached books")
+  void updateCategoryEvictsCachedBooks() throws Exception {
+    BookEntity book = new BookEntity();
+    book.setTitle("Cached Book");
+    book.setAuthor("Historian");
+    book.setCategory(existingCategory);
+    bookRepository.save(book);
+    mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId()))
+        .andExpect(jsonPath("$.categoryName").value("History"));
+
+    CategoryRequest update = new CategoryRequest();
+    update.setName("Ancient History");
+    mockMvc.perform(put(RestConstants.CATEGORIES + "/" + existingCategory.getId())
+            .header("Authorization", validToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(update)))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId()))
+        .andExpect(jsonPath("$.categoryName").value("Ancient History"));
+  }
+
+  @Test
+  @DisplayName("Get category by ID answers a matching If-None-Match with 304 until its book count changes")
+  void getCategoryByIdSupportsConditionalRequests() throws Exception {
+    String eTag = mockMvc.perform(get(RestConstants.CATEGORIES + "/" + existingCategory.getId()))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get(RestConstants.CATEGORIES + "/" + existingCategory.getId())
+            .header("If-None-Match", eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    BookEntity book = new BookEntity();
+    book.setTitle("Tagged History");
+    book.setAuthor("Historian");
+    book.setCategory(existingCategory);
+    bookRepository.save(book);
+    mockMvc.perform(get(RestConstants.CATEGORIES + "/" + existingCategory.getId())
+            .header("If-None-Match", eTag))
+        .andExpect(status().isOk());
+  }
+
   @Test
   @DisplayName("Create category without token returns 401 Unauthorized")
   void createCategoryWithoutAuthReturnsUnauthorized() throws Exception {
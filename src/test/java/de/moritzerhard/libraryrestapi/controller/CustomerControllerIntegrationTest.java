@@ -1,5 +1,6 @@
 package de.moritzerhard.libraryrestapi.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -12,6 +13,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.moritzerhard.libraryrestapi.dto.request.CustomerRequest;
 import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
 import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
+import de.moritzerhard.libraryrestapi.search.ExistenceIndex;
 import de.moritzerhard.libraryrestapi.utils.JwtTestUtils;
 import de.moritzerhard.libraryrestapi.utils.RestConstants;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +23,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.test.web.servlet.MockMvc;
@@ -46,6 +49,12 @@ class CustomerControllerIntegrationTest {
   @Autowired
   private JwtEncoder jwtEncoder;
 
+  @Autowired
+  private ExistenceIndex existenceIndex;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
   private CustomerEntity existingCustomer;
   private String validToken;
 
@@ -79,6 +88,54 @@ class CustomerControllerIntegrationTest {
         .andExpect(jsonPath("$.name").value("New User"));
   }
 
+  @Test
+  @DisplayName("Registering an already registered email returns 400 Bad Request")
+  void registerWithExistingEmailReturnsBadRequest() throws Exception {
+    CustomerRequest request = new CustomerRequest();
+    request.setName("John Again");
+    request.setEmail(existingCustomer.getEmail());
+    request.setPassword("password456");
+
+    mockMvc.perform(post(RestConstants.CUSTOMERS)
+            .header("Authorization", validToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Email already registered: john@example.com"));
+  }
+
+  @Test
+  @DisplayName("Registering an email the existence index has not seen yet, e.g. from another instance, returns 400")
+  void registerWithEmailUnknownToExistenceIndexReturnsBadRequest() throws Exception {
+    // Written around Hibernate, like an account registered through another instance
+    jdbcTemplate.update("INSERT INTO customers (name, email, password) VALUES (?, ?, ?)",
+        "Elsewhere", "elsewhere@example.com", existingCustomer.getPassword());
+    assertThat(existenceIndex.mightContainCustomerEmail("elsewhere@example.com")).isFalse();
+
+    CustomerRequest request = new CustomerRequest();
+    request.setName("Elsewhere Again");
+    request.setEmail("elsewhere@example.com");
+    request.setPassword("password456");
+
+    mockMvc.perform(post(RestConstants.CUSTOMERS)
+            .header("Authorization", validToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Email already registered: elsewhere@example.com"));
+  }
+
+  @Test
+  @DisplayName("Refilling the existence index picks up emails written around this instance")
+  void existenceIndexRefillPicksUpForeignEmails() {
+    jdbcTemplate.update("INSERT INTO customers (name, email, password) VALUES (?, ?, ?)",
+        "Foreign", "foreign@example.com", existingCustomer.getPassword());
+
+    existenceIndex.build();
+
+    assertThat(existenceIndex.mightContainCustomerEmail("foreign@example.com")).isTrue();
+  }
+
   @Test
   @DisplayName("Unauthenticated request to create customer returns 401 Unauthorized")
   void unauthenticatedCreateCustomerReturnsUnauthorized() throws Exception {
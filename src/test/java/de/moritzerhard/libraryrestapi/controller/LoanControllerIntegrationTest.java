@@ -0,0 +1,255 @@
+package de.moritzerhard.libraryrestapi.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.dto.request.LoanRequest;
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
+import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
+import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
+import de.moritzerhard.libraryrestapi.utils.JwtTestUtils;
+import de.moritzerhard.libraryrestapi.utils.RestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class LoanControllerIntegrationTest {
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private BookRepository bookRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private CustomerRepository customerRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @Autowired
+  private JwtEncoder jwtEncoder;
+
+  private String validToken;
+  private CustomerEntity customer;
+  private BookEntity book;
+
+  @BeforeEach
+  void setUp() {
+    customer = new CustomerEntity();
+    customer.setName("Loan Tester");
+    customer.setEmail("loantester@example.com");
+    customer.setPassword(passwordEncoder.encode("password123"));
+    customerRepository.save(customer);
+
+    validToken = JwtTestUtils.generateBearerToken(jwtEncoder, customer.getEmail());
+
+    CategoryEntity category = new CategoryEntity();
+    category.setName("Loanable");
+    categoryRepository.save(category);
+
+    book = new BookEntity();
+    book.setTitle("Popular Book");
+    book.setAuthor("Jane Writer");
+    book.setCopies(2);
+    book.setAvailableCopies(2);
+    book.setCategory(category);
+    bookRepository.save(book);
+  }
+
+  @Test
+  @DisplayName("Checking out a book returns 201 Created and takes one copy off the shelf")
+  void checkoutReturnsCreated() throws Exception {
+    checkout(book.getId())
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.id").exists())
+        .andExpect(jsonPath("$.bookId").value(book.getId()))
+        .andExpect(jsonPath("$.customerId").value(customer.getId()))
+        .andExpect(jsonPath("$.loanedAt").exists())
+        .andExpect(jsonPath("$.returnedAt").doesNotExist());
+
+    mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.copies").value(2))
+        .andExpect(jsonPath("$.availableCopies").value(1));
+  }
+
+  @Test
+  @DisplayName("Checking out a book without available copies returns 409 Conflict")
+  void checkoutWithoutAvailableCopiesReturnsConflict() throws Exception {
+    checkout(book.getId()).andExpect(status().isCreated());
+    checkout(book.getId()).andExpect(status().isCreated());
+
+    checkout(book.getId())
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.error").value("No copy of book " + book.getId() + " is available"));
+  }
+
+  @Test
+  @DisplayName("Checking out an unknown book returns 404 Not Found")
+  void checkoutUnknownBookReturnsNotFound() throws Exception {
+    checkout(987654321L).andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("Checking out a book without authentication returns 401 Unauthorized")
+  void checkoutWithoutAuthReturnsUnauthorized() throws Exception {
+    mockMvc.perform(post(RestConstants.LOANS)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(loanRequest(book.getId()))))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @DisplayName("Returning a loan puts the copy back; returning it again returns 409 Conflict")
+  void returnLoanOnlyOnce() throws Exception {
+    String created = checkout(book.getId()).andReturn().getResponse().getContentAsString();
+    long loanId = JsonPath.<Number>read(created, "$.id").longValue();
+
+    mockMvc.perform(post(RestConstants.LOANS + "/" + loanId + "/return")
+            .header("Authorization", validToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.returnedAt").exists());
+    mockMvc.perform(post(RestConstants.LOANS + "/" + loanId + "/return")
+            .header("Authorization", validToken))
+        .andExpect(status().isConflict());
+
+    mockMvc.perform(get(RestConstants.LOANS + "/" + loanId)
+            .header("Authorization", validToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.returnedAt").exists());
+    mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId()))
+        .andExpect(jsonPath("$.availableCopies").value(2));
+  }
+
+  @Test
+  @DisplayName("Returning a loan whose copy is already on the shelf returns 409 Conflict and keeps the loan open")
+  void returnWithoutCopyOnLoanReturnsConflict() throws Exception {
+    String created = checkout(book.getId()).andReturn().getResponse().getContentAsString();
+    long loanId = JsonPath.<Number>read(created, "$.id").longValue();
+    // Corrupt the counts, as if the copy had been put back without ending the loan
+    bookRepository.returnCopy(book.getId());
+
+    mockMvc.perform(post(RestConstants.LOANS + "/" + loanId + "/return")
+            .header("Authorization", validToken))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.error").value("All copies of book " + book.getId() + " are already available"));
+  }
+
+  @Test
+  @DisplayName("Loans of another customer cannot be read or returned (403 Forbidden)")
+  void loansOfOtherCustomersAreForbidden() throws Exception {
+    String created = checkout(book.getId()).andReturn().getResponse().getContentAsString();
+    long loanId = JsonPath.<Number>read(created, "$.id").longValue();
+
+    CustomerEntity other = new CustomerEntity();
+    other.setName("Other Reader");
+    other.setEmail("otherreader@example.com");
+    other.setPassword(customer.getPassword());
+    customerRepository.save(other);
+    String otherToken = JwtTestUtils.generateBearerToken(jwtEncoder, other.getEmail());
+
+    mockMvc.perform(get(RestConstants.LOANS + "/" + loanId)
+            .header("Authorization", otherToken))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(post(RestConstants.LOANS + "/" + loanId + "/return")
+            .header("Authorization", otherToken))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId()))
+        .andExpect(jsonPath("$.availableCopies").value(1));
+  }
+
+  @Test
+  @DisplayName("Reducing the copies of a book below the copies on loan returns 409 Conflict")
+  void updateCopiesBelowLoansReturnsConflict() throws Exception {
+    checkout(book.getId()).andExpect(status().isCreated());
+
+    BookRequest update = new BookRequest();
+    update.setTitle(book.getTitle());
+    update.setAuthor(book.getAuthor());
+    update.setCopies(0);
+    mockMvc.perform(put(RestConstants.BOOKS + "/" + book.getId())
+            .header("Authorization", validToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(update)))
+        .andExpect(status().isConflict());
+
+    update.setCopies(5);
+    mockMvc.perform(put(RestConstants.BOOKS + "/" + book.getId())
+            .header("Authorization", validToken)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(update)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.copies").value(5))
+        .andExpect(jsonPath("$.availableCopies").value(4));
+  }
+
+  @Test
+  @DisplayName("Deleting a book, its category or a customer with copies on loan returns 409 Conflict")
+  void deleteWithOpenLoansReturnsConflict() throws Exception {
+    String created = checkout(book.getId()).andReturn().getResponse().getContentAsString();
+    long loanId = JsonPath.<Number>read(created, "$.id").longValue();
+
+    mockMvc.perform(delete(RestConstants.BOOKS + "/" + book.getId())
+            .header("Authorization", validToken))
+        .andExpect(status().isConflict());
+    mockMvc.perform(delete(RestConstants.CATEGORIES + "/" + book.getCategory().getId())
+            .header("Authorization", validToken))
+        .andExpect(status().isConflict());
+    mockMvc.perform(delete(RestConstants.CUSTOMERS + "/" + customer.getId())
+            .header("Authorization", validToken))
+        .andExpect(status().isConflict());
+    mockMvc.perform(get(RestConstants.BOOKS + "/" + book.getId()))
+        .andExpect(jsonPath("$.availableCopies").value(1));
+
+    mockMvc.perform(post(RestConstants.LOANS + "/" + loanId + "/return")
+            .header("Authorization", validToken))
+        .andExpect(status().isOk());
+    mockMvc.perform(delete(RestConstants.BOOKS + "/" + book.getId())
+            .header("Authorization", validToken))
+        .andExpect(status().isNoContent());
+    mockMvc.perform(delete(RestConstants.CUSTOMERS + "/" + customer.getId())
+            .header("Authorization", validToken))
+        .andExpect(status().isNoContent());
+  }
+
+  private ResultActions checkout(Long bookId) throws Exception {
+    return mockMvc.perform(post(RestConstants.LOANS)
+        .header("Authorization", validToken)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(loanRequest(bookId))));
+  }
+
+  private LoanRequest loanRequest(Long bookId) {
+    LoanRequest request = new LoanRequest();
+    request.setBookId(bookId);
+    return request;
+  }
+}
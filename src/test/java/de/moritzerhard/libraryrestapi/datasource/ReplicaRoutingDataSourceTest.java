@@ -0,0 +1,138 @@
+package de.moritzerhard.libraryrestapi.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReplicaRoutingDataSourceTest {
+  private static final Duration MAX_LAG = Duration.ofSeconds(1);
+  private static final Duration RETRY_INTERVAL = Duration.ofSeconds(30);
+
+  private final AtomicLong nanoTime = new AtomicLong();
+  private DataSource primary;
+  private DataSource replica;
+
+  @BeforeEach
+  void setUp() {
+    primary = database("primary");
+    replica = database("replica");
+  }
+
+  @Test
+  @DisplayName("Read-only transactions go to the replica, everything else to the primary")
+  void routesReadOnlyTransactionsToReplica() {
+    JdbcTemplate jdbc = routing(List.of(replica));
+
+    assertThat(readOnly(jdbc)).isEqualTo("replica");
+    assertThat(readWrite(jdbc)).isEqualTo("primary");
+    assertThat(jdbc.queryForObject("SELECT name FROM node", String.class)).isEqualTo("primary");
+  }
+
+  @Test
+  @DisplayName("Read-only transactions go to the primary for the maximum lag after a write")
+  void readsOwnWritesFromPrimary() {
+    JdbcTemplate jdbc = routing(List.of(replica));
+
+    transaction(jdbc, false).executeWithoutResult(status -> jdbc.update("UPDATE node SET name = 'written'"));
+    assertThat(readOnly(jdbc)).isEqualTo("written");
+
+    nanoTime.addAndGet(MAX_LAG.toNanos());
+    assertThat(readOnly(jdbc)).isEqualTo("replica");
+  }
+
+  @Test
+  @DisplayName("Rolled back transactions do not send reads to the primary")
+  void ignoresRolledBackWrites() {
+    JdbcTemplate jdbc = routing(List.of(replica));
+
+    transaction(jdbc, false).executeWithoutResult(status -> {
+      jdbc.update("UPDATE node SET name = 'written'");
+      status.setRollbackOnly();
+    });
+
+    assertThat(readOnly(jdbc)).isEqualTo("replica");
+  }
+
+  @Test
+  @DisplayName("Unavailable replicas are skipped for the retry interval, falling back to the primary")
+  void failsOverToPrimary() {
+    AtomicInteger attempts = new AtomicInteger();
+    DataSource unavailable = new AbstractDataSource() {
+      @Override
+      public Connection getConnection() throws SQLException {
+        attempts.incrementAndGet();
+        throw new SQLException("Connection refused");
+      }
+
+      @Override
+      public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+      }
+    };
+    JdbcTemplate jdbc = routing(List.of(unavailable));
+
+    assertThat(readOnly(jdbc)).isEqualTo("primary");
+    assertThat(readOnly(jdbc)).isEqualTo("primary");
+    assertThat(attempts).hasValue(1);
+
+    nanoTime.addAndGet(RETRY_INTERVAL.toNanos());
+    assertThat(readOnly(jdbc)).isEqualTo("primary");
+    assertThat(attempts).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Read-only transactions are spread round robin over the replicas")
+  void balancesReplicas() {
+    JdbcTemplate jdbc = routing(List.of(replica, database("second replica")));
+
+    assertThat(List.of(readOnly(jdbc), readOnly(jdbc), readOnly(jdbc)))
+        .containsExactly("replica", "second replica", "replica");
+  }
+
+  private JdbcTemplate routing(List<DataSource> replicas) {
+    ReplicaPoolDataSource pool = new ReplicaPoolDataSource(replicas, primary, RETRY_INTERVAL, nanoTime::get);
+    return new JdbcTemplate(new LazyConnectionDataSourceProxy(
+        new ReplicaRoutingDataSource(primary, pool, MAX_LAG, nanoTime::get)));
+  }
+
+  private static String readOnly(JdbcTemplate jdbc) {
+    return transaction(jdbc, true).execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+  }
+
+  private static String readWrite(JdbcTemplate jdbc) {
+    return transaction(jdbc, false).execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+  }
+
+  private static TransactionTemplate transaction(JdbcTemplate jdbc, boolean readOnly) {
+    TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+    template.setReadOnly(readOnly);
+    return template;
+  }
+
+  /**
+   * Creates an in-memory database whose single row names the database, so tests can tell where a query ran.
+   */
+  private static DataSource database(String name) {
+    DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("CREATE TABLE node (name VARCHAR(32))");
+    jdbc.update("INSERT INTO node VALUES (?)", name);
+    return dataSource;
+  }
+}
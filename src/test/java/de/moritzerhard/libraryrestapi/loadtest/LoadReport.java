@@ -0,0 +1,75 @@
+package de.moritzerhard.libraryrestapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Result of a load test run: the configuration it ran with and the throughput and latency percentiles
+ * of each endpoint. Written as JSON to {@code target/loadtest/<name>.json}, or to the directory given by
+ * the {@code loadtest.report-dir} system property.
+ *
+ * @param name              the name of the run
+ * @param targetRate        the configured number of requests started per second
+ * @param durationSeconds   the configured measurement duration
+ * @param dataset           the size of the seeded dataset
+ * @param throughput        the successful requests per second over all endpoints
+ * @param requests          the measured requests over all endpoints
+ * @param errors            the failed requests over all endpoints
+ * @param endpoints         the results per endpoint
+ */
+record LoadReport(String name, double targetRate, long durationSeconds, LoadTestEnvironment.Dataset dataset,
+                  double throughput, long requests, long errors, Map<String, Endpoint> endpoints) {
+  private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  static LoadReport of(String name, double targetRate, Duration duration, LoadTestEnvironment.Dataset dataset,
+                       double elapsedSeconds, Map<String, Endpoint> endpoints) {
+    long requests = endpoints.values().stream().mapToLong(Endpoint::requests).sum();
+    long errors = endpoints.values().stream().mapToLong(Endpoint::errors).sum();
+    double throughput = elapsedSeconds > 0 ? (requests - errors) / elapsedSeconds : 0;
+    return new LoadReport(name, targetRate, duration.toSeconds(), dataset, throughput, requests, errors, endpoints);
+  }
+
+  /**
+   * Writes this report as JSON to the report directory.
+   *
+   * @return the path of the written report
+   */
+  Path write() {
+    Path file = Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")).resolve(name + ".json");
+    try {
+      Files.createDirectories(file.getParent());
+      MAPPER.writeValue(file.toFile(), this);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return file;
+  }
+
+  /**
+   * Prints this report as a table, one endpoint per row.
+   */
+  void print(PrintStream out) {
+    out.printf("%s: %.0f requests/s of %.0f targeted, %d requests, %d errors%n",
+        name, throughput, targetRate, requests, errors);
+    out.printf("  %-22s %10s %8s %10s %10s %10s %10s%n",
+        "endpoint", "requests/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    endpoints.forEach((endpoint, result) -> out.printf("  %-22s %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+        endpoint, result.throughput(), result.errors(), result.p50Millis(), result.p99Millis(),
+        result.p999Millis(), result.maxMillis()));
+  }
+
+  /**
+   * Result of a single endpoint. Latencies cover successful requests only; failures are counted by
+   * HTTP status or exception.
+   */
+  record Endpoint(long requests, long errors, Map<String, Long> failures, double throughput,
+                  double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+  }
+}
@@ -0,0 +1,172 @@
+package de.moritzerhard.libraryrestapi.loadtest;
+
+import de.moritzerhard.libraryrestapi.LibraryRestApiApplication;
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
+import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
+import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
+import de.moritzerhard.libraryrestapi.search.BookFacetIndex;
+import de.moritzerhard.libraryrestapi.search.BookSearchIndex;
+import de.moritzerhard.libraryrestapi.service.AuthService;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * The application booted on a random port with its own in-memory database, seeded with a dataset of
+ * configurable size. Holds the ids of the seeded entities so that workloads can address them.
+ */
+final class LoadTestEnvironment implements AutoCloseable {
+  static final String PASSWORD = "password123";
+  private static final int SEED_CHUNK_SIZE = 1000;
+
+  private final ConfigurableApplicationContext context;
+  private final String baseUrl;
+  private final Dataset dataset;
+  private final List<Long> categoryIds = new ArrayList<>();
+  private final List<Long> bookIds = new ArrayList<>();
+  private final List<Long> customerIds = new ArrayList<>();
+  private final List<String> customerEmails = new ArrayList<>();
+  private final String token;
+
+  private LoadTestEnvironment(ConfigurableApplicationContext context, Dataset dataset) {
+    this.context = context;
+    this.dataset = dataset;
+    this.baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    seed();
+    this.token = context.getBean(AuthService.class).issueToken(customerEmails.getFirst());
+  }
+
+  /**
+   * Boots the application and seeds its database.
+   *
+   * @param dataset    the size of the dataset to seed
+   * @param properties additional application properties in {@code key=value} form
+   * @return the started environment
+   */
+  static LoadTestEnvironment start(Dataset dataset, String... properties) {
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryRestApiApplication.class)
+        .properties("server.port=0")
+        // actuator endpoints on the same random port rather than a fixed management port
+        .properties("management.server.port=0")
+        // all load comes from one address, which the rate limit would throttle; can be enabled through properties
+        .properties("rate-limit.enabled=false")
+        .properties(properties)
+        .run();
+    try {
+      return new LoadTestEnvironment(context, dataset);
+    } catch (RuntimeException e) {
+      context.close();
+      throw e;
+    }
+  }
+
+  String baseUrl() {
+    return baseUrl;
+  }
+
+  Dataset dataset() {
+    return dataset;
+  }
+
+  List<Long> categoryIds() {
+    return categoryIds;
+  }
+
+  List<Long> bookIds() {
+    return bookIds;
+  }
+
+  List<Long> customerIds() {
+    return customerIds;
+  }
+
+  List<String> customerEmails() {
+    return customerEmails;
+  }
+
+  /**
+   * A bearer token of the first seeded customer, for endpoints that require authentication.
+   */
+  String token() {
+    return token;
+  }
+
+  @Override
+  public void close() {
+    context.close();
+  }
+
+  private void seed() {
+    CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+    List<CategoryEntity> categories = new ArrayList<>();
+    for (int i = 0; i < dataset.categories(); i++) {
+      CategoryEntity category = new CategoryEntity();
+      category.setName("Load Category " + i);
+      category.setDescription("Seeded for load tests");
+      categories.add(category);
+    }
+    categoryRepository.saveAll(categories).forEach(category -> categoryIds.add(category.getId()));
+
+    BookRepository bookRepository = context.getBean(BookRepository.class);
+    List<BookEntity> books = new ArrayList<>(SEED_CHUNK_SIZE);
+    for (int i = 0; i < dataset.books(); i++) {
+      BookEntity book = new BookEntity();
+      book.setTitle("Load Book " + i);
+      book.setAuthor("Author " + i % 500);
+      book.setPublisher("Publisher " + i % 20);
+      book.setPublishingYear(1900 + i % 125);
+      book.setCategory(categories.get(i % categories.size()));
+      books.add(book);
+      if (books.size() == SEED_CHUNK_SIZE || i == dataset.books() - 1) {
+        bookRepository.saveAll(books).forEach(saved -> bookIds.add(saved.getId()));
+        books.clear();
+      }
+    }
+    context.getBean(BookSearchIndex.class).rebuild();
+    context.getBean(BookFacetIndex.class).rebuild();
+
+    // All customers share one hash, so seeding does not pay the hashing cost once per customer
+    String password = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+    CustomerRepository customerRepository = context.getBean(CustomerRepository.class);
+    List<CustomerEntity> customers = new ArrayList<>();
+    for (int i = 0; i < dataset.customers(); i++) {
+      CustomerEntity customer = new CustomerEntity();
+      customer.setName("Load Customer " + i);
+      customer.setEmail("load-" + i + "@example.com");
+      customer.setPassword(password);
+      customers.add(customer);
+    }
+    customerRepository.saveAll(customers).forEach(customer -> {
+      customerIds.add(customer.getId());
+      customerEmails.add(customer.getEmail());
+    });
+  }
+
+  /**
+   * Number of entities seeded per type.
+   */
+  record Dataset(int books, int categories, int customers) {
+
+    Dataset {
+      if (books < 1 || categories < 1 || customers < 1) {
+        throw new IllegalArgumentException("Dataset needs at least one book, category and customer");
+      }
+    }
+
+    /**
+     * Reads the dataset size from the {@code loadtest.books}, {@code loadtest.categories} and
+     * {@code loadtest.customers} system properties.
+     */
+    static Dataset fromSystemProperties() {
+      return new Dataset(Integer.getInteger("loadtest.books", 10_000),
+          Integer.getInteger("loadtest.categories", 50),
+          Integer.getInteger("loadtest.customers", 100));
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package de.moritzerhard.libraryrestapi.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Drives the mixed read, write and login workload at a fixed arrival rate and reports throughput and
+ * p50, p99 and p99.9 latency per endpoint to {@code target/loadtest/mixed.json}.
+ * Disabled by default; run with {@code mvn test -Dtest=MixedWorkloadLoadTest -Dloadtest=true}, optionally
+ * with {@code -Dloadtest.rate}, {@code -Dloadtest.seconds}, {@code -Dloadtest.warmup-seconds},
+ * {@code -Dloadtest.books}, {@code -Dloadtest.categories} and {@code -Dloadtest.customers}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class MixedWorkloadLoadTest {
+
+  @Test
+  @DisplayName("Mixed workload at a fixed arrival rate")
+  void mixedWorkload() {
+    LoadReport report;
+    try (LoadTestEnvironment env = LoadTestEnvironment.start(LoadTestEnvironment.Dataset.fromSystemProperties())) {
+      report = OpenLoadGenerator.fromSystemProperties().run("mixed", env, Workload.mixed());
+    }
+
+    report.print(System.out);
+    System.out.println("Report written to " + report.write());
+    assertThat(report.endpoints().values()).allSatisfy(endpoint -> assertThat(endpoint.requests()).isPositive());
+  }
+}
@@ -0,0 +1,156 @@
+package de.moritzerhard.libraryrestapi.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Drives a workload against a {@link LoadTestEnvironment} in an open model: requests are started at a
+ * fixed arrival rate, each on its own virtual thread, regardless of how many earlier requests are still
+ * in flight. Latency is measured from the time a request was scheduled to start rather than from the
+ * time it was actually sent, so a stalled server or a lagging generator shows up in the percentiles
+ * instead of silently lowering the request rate (coordinated omission).
+ */
+final class OpenLoadGenerator {
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final double rate;
+  private final Duration warmup;
+  private final Duration duration;
+
+  /**
+   * @param rate     the number of requests started per second
+   * @param warmup   the time requests are sent before measuring starts
+   * @param duration the time requests are sent and measured after the warmup
+   */
+  OpenLoadGenerator(double rate, Duration warmup, Duration duration) {
+    if (rate <= 0 || duration.isNegative() || duration.isZero()) {
+      throw new IllegalArgumentException("Rate and duration must be positive");
+    }
+    this.rate = rate;
+    this.warmup = warmup;
+    this.duration = duration;
+  }
+
+  /**
+   * Reads the arrival rate, warmup and duration from the {@code loadtest.rate},
+   * {@code loadtest.warmup-seconds} and {@code loadtest.seconds} system properties.
+   */
+  static OpenLoadGenerator fromSystemProperties() {
+    return new OpenLoadGenerator(Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+        Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5)),
+        Duration.ofSeconds(Long.getLong("loadtest.seconds", 30)));
+  }
+
+  /**
+   * Runs the workload and waits for all requests to complete.
+   *
+   * @param name     the name of the run, used for the report
+   * @param env      the environment to send requests to
+   * @param workload the operations to send
+   * @return the latency and throughput of each operation, measured after the warmup
+   */
+  LoadReport run(String name, LoadTestEnvironment env, Workload workload) {
+    Map<String, Recorder> recorders = new LinkedHashMap<>();
+    workload.operations().forEach(operation -> recorders.put(operation.name(), new Recorder()));
+
+    long interval = (long) (1_000_000_000 / rate);
+    long start = System.nanoTime();
+    long measureFrom = start + warmup.toNanos();
+    long end = measureFrom + duration.toNanos();
+    AtomicLong lastCompletion = new AtomicLong(measureFrom);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+         HttpClient client = HttpClient.newBuilder()
+             .executor(executor)
+             .version(HttpClient.Version.HTTP_1_1)
+             .connectTimeout(Duration.ofSeconds(5))
+             .build()) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (long scheduled = start; scheduled < end; scheduled += interval) {
+        for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+          LockSupport.parkNanos(wait);
+        }
+        Workload.Operation operation = workload.next(random);
+        HttpRequest request = operation.request().apply(env, random);
+        Recorder recorder = scheduled >= measureFrom ? recorders.get(operation.name()) : null;
+        long intendedStart = scheduled;
+        executor.execute(() -> send(client, request, intendedStart, recorder, lastCompletion));
+      }
+      // Closing the client and the executor waits for the requests still in flight
+    }
+
+    double elapsedSeconds = (lastCompletion.get() - measureFrom) / 1e9;
+    Map<String, LoadReport.Endpoint> endpoints = new LinkedHashMap<>();
+    recorders.forEach((operation, recorder) -> endpoints.put(operation, recorder.toReport(elapsedSeconds)));
+    return LoadReport.of(name, rate, duration, env.dataset(), elapsedSeconds, endpoints);
+  }
+
+  private static void send(HttpClient client, HttpRequest request, long intendedStart, Recorder recorder,
+                           AtomicLong lastCompletion) {
+    String failure = null;
+    try {
+      int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      if (status >= 400) {
+        failure = Integer.toString(status);
+      }
+    } catch (IOException e) {
+      failure = e.getClass().getSimpleName();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    long completed = System.nanoTime();
+    if (recorder != null) {
+      recorder.record(completed - intendedStart, failure);
+      lastCompletion.accumulateAndGet(completed, Math::max);
+    }
+  }
+
+  /**
+   * Latencies of the successful requests of one operation, and the failed requests by cause.
+   */
+  private static final class Recorder {
+    private final Histogram latencies = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    void record(long latencyNanos, String failure) {
+      if (failure == null) {
+        latencies.recordValue(latencyNanos);
+      } else {
+        failures.computeIfAbsent(failure, key -> new LongAdder()).increment();
+      }
+    }
+
+    LoadReport.Endpoint toReport(double elapsedSeconds) {
+      Map<String, Long> failureCounts = new LinkedHashMap<>();
+      failures.forEach((cause, count) -> failureCounts.put(cause, count.sum()));
+      long successes = latencies.getTotalCount();
+      long errors = failureCounts.values().stream().mapToLong(Long::longValue).sum();
+      return new LoadReport.Endpoint(successes + errors, errors, failureCounts,
+          elapsedSeconds > 0 ? successes / elapsedSeconds : 0,
+          millis(latencies.getValueAtPercentile(50)),
+          millis(latencies.getValueAtPercentile(99)),
+          millis(latencies.getValueAtPercentile(99.9)),
+          millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+      return nanos / NANOS_PER_MILLI;
+    }
+  }
+}
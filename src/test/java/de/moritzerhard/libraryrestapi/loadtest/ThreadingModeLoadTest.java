@@ -0,0 +1,40 @@
+package de.moritzerhard.libraryrestapi.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Compares throughput and latency of platform and virtual request threads on a mix of catalog reads
+ * and logins sent at the same fixed arrival rate. Each mode boots the application with its own in-memory
+ * database; the reports are written to {@code target/loadtest/threads-platform.json} and
+ * {@code target/loadtest/threads-virtual.json}.
+ * Disabled by default; run with {@code mvn test -Dtest=ThreadingModeLoadTest -Dloadtest=true}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ThreadingModeLoadTest {
+
+  @Test
+  @DisplayName("Platform versus virtual request threads")
+  void compareThreadingModes() {
+    LoadReport platform = run(false);
+    LoadReport virtual = run(true);
+
+    for (LoadReport report : new LoadReport[] {platform, virtual}) {
+      report.print(System.out);
+      System.out.println("Report written to " + report.write());
+    }
+    assertThat(platform.requests()).isPositive();
+    assertThat(virtual.requests()).isPositive();
+  }
+
+  private static LoadReport run(boolean virtualThreads) {
+    try (LoadTestEnvironment env = LoadTestEnvironment.start(LoadTestEnvironment.Dataset.fromSystemProperties(),
+        "spring.threads.virtual.enabled=" + virtualThreads)) {
+      return OpenLoadGenerator.fromSystemProperties()
+          .run(virtualThreads ? "threads-virtual" : "threads-platform", env, Workload.catalogReadsAndLogins());
+    }
+  }
+}
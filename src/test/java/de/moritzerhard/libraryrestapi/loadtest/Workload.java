@@ -0,0 +1,118 @@
+package de.moritzerhard.libraryrestapi.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * A weighted mix of operations. Each request of a load test picks one operation at random,
+ * with a probability proportional to its weight.
+ */
+final class Workload {
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private final List<Operation> operations = new ArrayList<>();
+  private int totalWeight;
+
+  /**
+   * The mixed workload across all controllers: mostly catalog reads, some catalog and customer writes,
+   * customer reads and logins.
+   */
+  static Workload mixed() {
+    return new Workload()
+        .add("GET /books/{id}", 30, (env, random) -> get(env, "/api/v1/books/" + pick(env.bookIds(), random)))
+        .add("GET /books", 15, (env, random) -> get(env, "/api/v1/books?limit=20"))
+        .add("GET /books/search", 10, (env, random) -> get(env, "/api/v1/books/search?limit=20&q=Author+"
+            + random.nextInt(500)))
+        .add("GET /categories", 5, (env, random) -> get(env, "/api/v1/categories"))
+        .add("GET /categories/{id}", 10, (env, random) ->
+            get(env, "/api/v1/categories/" + pick(env.categoryIds(), random)))
+        .add("POST /books", 5, (env, random) -> authenticated(env, "/api/v1/books")
+            .POST(json(book(env, random))).build())
+        .add("PUT /books/{id}", 5, (env, random) ->
+            authenticated(env, "/api/v1/books/" + pick(env.bookIds(), random))
+                .PUT(json(book(env, random))).build())
+        .add("GET /customers/{id}", 10, (env, random) ->
+            authenticated(env, "/api/v1/customers/" + pick(env.customerIds(), random)).GET().build())
+        .add("POST /auth/login", 10, (env, random) -> login(env, pick(env.customerEmails(), random)));
+  }
+
+  /**
+   * Catalog reads and logins only: 80 % list books, 10 % list categories, 10 % log in.
+   */
+  static Workload catalogReadsAndLogins() {
+    return new Workload()
+        .add("GET /books", 80, (env, random) -> get(env, "/api/v1/books?limit=20"))
+        .add("GET /categories", 10, (env, random) -> get(env, "/api/v1/categories"))
+        .add("POST /auth/login", 10, (env, random) -> login(env, pick(env.customerEmails(), random)));
+  }
+
+  Workload add(String name, int weight, BiFunction<LoadTestEnvironment, ThreadLocalRandom, HttpRequest> request) {
+    operations.add(new Operation(name, weight, request));
+    totalWeight += weight;
+    return this;
+  }
+
+  List<Operation> operations() {
+    return operations;
+  }
+
+  /**
+   * Picks an operation at random according to the weights.
+   */
+  Operation next(ThreadLocalRandom random) {
+    int pick = random.nextInt(totalWeight);
+    for (Operation operation : operations) {
+      pick -= operation.weight();
+      if (pick < 0) {
+        return operation;
+      }
+    }
+    throw new IllegalStateException("Workload has no operations");
+  }
+
+  private static HttpRequest get(LoadTestEnvironment env, String path) {
+    return request(env, path).GET().build();
+  }
+
+  private static HttpRequest login(LoadTestEnvironment env, String email) {
+    return request(env, "/api/v1/auth/login")
+        .POST(json("{\"email\":\"" + email + "\",\"password\":\"" + LoadTestEnvironment.PASSWORD + "\"}"))
+        .build();
+  }
+
+  private static HttpRequest.Builder authenticated(LoadTestEnvironment env, String path) {
+    return request(env, path).header("Authorization", "Bearer " + env.token());
+  }
+
+  private static HttpRequest.Builder request(LoadTestEnvironment env, String path) {
+    return HttpRequest.newBuilder(URI.create(env.baseUrl() + path))
+        .timeout(REQUEST_TIMEOUT)
+        .header("Content-Type", "application/json");
+  }
+
+  private static HttpRequest.BodyPublisher json(String body) {
+    return HttpRequest.BodyPublishers.ofString(body);
+  }
+
+  private static String book(LoadTestEnvironment env, ThreadLocalRandom random) {
+    int n = random.nextInt(1_000_000);
+    return "{\"title\":\"Written Book " + n + "\",\"author\":\"Author " + n % 500 + "\",\"publisher\":\"Publisher "
+        + n % 20 + "\",\"publishingYear\":" + (1900 + n % 125) + ",\"categoryId\":" + pick(env.categoryIds(), random)
+        + "}";
+  }
+
+  private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+    return values.get(random.nextInt(values.size()));
+  }
+
+  /**
+   * A named operation, typically one endpoint, and how to build a request for it.
+   */
+  record Operation(String name, int weight, BiFunction<LoadTestEnvironment, ThreadLocalRandom, HttpRequest> request) {
+  }
+}
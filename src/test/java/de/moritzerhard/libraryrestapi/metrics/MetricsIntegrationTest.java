@@ -0,0 +1,82 @@
+package de.moritzerhard.libraryrestapi.metrics;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import de.moritzerhard.libraryrestapi.utils.RestConstants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsIntegrationTest {
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  @DisplayName("Prometheus scrape endpoint is open on the management port and exposes timings of every layer")
+  void prometheusEndpoint() throws Exception {
+    mockMvc.perform(get(RestConstants.CATEGORIES)).andExpect(status().isOk());
+
+    mockMvc.perform(get("/actuator/prometheus").with(managementPort()))
+        .andExpect(status().isOk())
+        .andExpect(content().string(allOf(
+            containsString("http_server_requests_seconds_bucket{"),
+            containsString("spring_security_filterchains_seconds_bucket{"),
+            containsString("service_invocations_seconds_bucket{"),
+            containsString("spring_data_repository_invocations_seconds_bucket{"),
+            containsString("hibernate_"),
+            containsString("hikaricp_connections"),
+            containsString("cache_gets_total{"),
+            containsString("cache=\"books\""),
+            containsString("cache=\"categories\""),
+            containsString("cache=\"jwt\""))));
+  }
+
+  @Test
+  @DisplayName("Service timings are tagged by class, method and outcome")
+  void serviceTimingsTaggedByOutcome() throws Exception {
+    mockMvc.perform(get(RestConstants.CATEGORIES + "/-1")).andExpect(status().isNotFound());
+
+    mockMvc.perform(get("/actuator/prometheus").with(managementPort()))
+        .andExpect(status().isOk())
+        .andExpect(content().string(allOf(
+            containsString("class=\"CategoryService\""),
+            containsString("exception=\"ResourceNotFoundException\""),
+            containsString("outcome=\"ERROR\""))));
+  }
+
+  @Test
+  @DisplayName("Other actuator endpoints, and all of them on the public port, require authentication")
+  void otherActuatorEndpointsRequireAuthentication() throws Exception {
+    mockMvc.perform(get("/actuator/metrics").with(managementPort())).andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/health")).andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @DisplayName("Health endpoint is open on the management port")
+  void healthEndpoint() throws Exception {
+    mockMvc.perform(get("/actuator/health").with(managementPort())).andExpect(status().isOk());
+  }
+
+  /**
+   * Marks the request as received on the management port, which the test configuration sets to 8080.
+   */
+  private static RequestPostProcessor managementPort() {
+    return request -> {
+      request.setLocalPort(8080);
+      return request;
+    };
+  }
+}
@@ -0,0 +1,90 @@
+package de.moritzerhard.libraryrestapi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import de.moritzerhard.libraryrestapi.metrics.SecondLevelCacheMetrics;
+import de.moritzerhard.libraryrestapi.metrics.StatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs without a test transaction, as the second-level cache is only filled by committed transactions.
+ */
+@SpringBootTest
+class CategoryRepositorySecondLevelCacheTest {
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Long categoryId;
+
+  @BeforeEach
+  void setUp() {
+    CategoryEntity category = new CategoryEntity();
+    category.setName("Cached " + UUID.randomUUID());
+    categoryId = transactionTemplate.execute(status -> categoryRepository.save(category).getId());
+  }
+
+  @AfterEach
+  void tearDown() {
+    transactionTemplate.executeWithoutResult(status -> categoryRepository.deleteById(categoryId));
+  }
+
+  @Test
+  @DisplayName("Categories are loaded from the second-level cache in later transactions")
+  void findByIdHitsSecondLevelCache() {
+    transactionTemplate.executeWithoutResult(status -> categoryRepository.findById(categoryId));
+
+    try (StatementCounter.Scope statements = StatementCounter.open()) {
+      CategoryEntity category = transactionTemplate.execute(status -> categoryRepository.findById(categoryId))
+          .orElseThrow();
+
+      assertThat(category.getName()).startsWith("Cached ");
+      assertThat(statements.count()).isZero();
+    }
+    assertThat(meterRegistry.get(SecondLevelCacheMetrics.METRIC_NAME).tag("region", "category-entities")
+        .gauge().value()).isPositive();
+  }
+
+  @Test
+  @DisplayName("Category pages are served from the query cache until a category changes")
+  void categoryPageHitsQueryCache() {
+    transactionTemplate.executeWithoutResult(status -> page());
+
+    try (StatementCounter.Scope statements = StatementCounter.open()) {
+      List<Long> ids = transactionTemplate.execute(status -> page());
+
+      assertThat(ids).containsExactly(categoryId);
+      assertThat(statements.count()).isZero();
+    }
+
+    transactionTemplate.executeWithoutResult(status ->
+        categoryRepository.findById(categoryId).orElseThrow().setDescription("changed"));
+
+    try (StatementCounter.Scope statements = StatementCounter.open()) {
+      transactionTemplate.executeWithoutResult(status -> page());
+      assertThat(statements.count()).isEqualTo(1);
+    }
+  }
+
+  private List<Long> page() {
+    return categoryRepository.findByIdGreaterThanOrderByIdAsc(categoryId - 1, Limit.of(1)).stream()
+        .map(CategoryEntity::getId)
+        .toList();
+  }
+}
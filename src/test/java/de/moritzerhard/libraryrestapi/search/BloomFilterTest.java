@@ -0,0 +1,53 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+  private static final int KEYS = 100_000;
+
+  @Test
+  @DisplayName("Every added key is reported as possibly contained")
+  void hasNoFalseNegatives() {
+    BloomFilter filter = new BloomFilter(KEYS, 0.01);
+    for (long id = 1; id <= KEYS; id++) {
+      filter.add(id);
+      filter.add("customer-" + id + "@example.com");
+    }
+
+    for (long id = 1; id <= KEYS; id++) {
+      assertThat(filter.mightContain(id)).isTrue();
+      assertThat(filter.mightContain("customer-" + id + "@example.com")).isTrue();
+    }
+  }
+
+  @Test
+  @DisplayName("Keys that were not added are rejected at about the configured false positive rate")
+  void keepsFalsePositiveRate() {
+    BloomFilter ids = new BloomFilter(KEYS, 0.01);
+    BloomFilter emails = new BloomFilter(KEYS, 0.01);
+    for (long id = 1; id <= KEYS; id++) {
+      ids.add(id);
+      emails.add("customer-" + id + "@example.com");
+    }
+
+    int idFalsePositives = 0;
+    int emailFalsePositives = 0;
+    for (long id = KEYS + 1; id <= 2 * KEYS; id++) {
+      idFalsePositives += ids.mightContain(id) ? 1 : 0;
+      emailFalsePositives += emails.mightContain("customer-" + id + "@example.com") ? 1 : 0;
+    }
+    assertThat(idFalsePositives).isLessThan(KEYS / 50);
+    assertThat(emailFalsePositives).isLessThan(KEYS / 50);
+  }
+
+  @Test
+  @DisplayName("Invalid sizes are rejected")
+  void rejectsInvalidSizes() {
+    assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new BloomFilter(KEYS, 1)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
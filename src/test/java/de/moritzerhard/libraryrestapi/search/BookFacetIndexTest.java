@@ -0,0 +1,127 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.moritzerhard.libraryrestapi.dto.request.BookFilterRequest;
+import de.moritzerhard.libraryrestapi.dto.response.BookFacetsResponse;
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookFacetIndexTest {
+  private static final int BOOKS = 5000;
+
+  @Test
+  @DisplayName("Facets stay correct after most books were removed and their ordinals were reclaimed")
+  void keepsFacetsAfterCompaction() {
+    BookFacetIndex index = new BookFacetIndex(null, null);
+    for (long id = 1; id <= BOOKS; id++) {
+      index.index(book(id, id % 2 + 1, 1990 + (int) (id % 20), "Author " + id % 3));
+    }
+    for (long id = 1; id <= 4000; id++) {
+      index.remove(id);
+    }
+    index.index(book(4500, 3, 2024, "New Author"));
+    index.index(book(BOOKS + 1, 3, 2024, "New Author"));
+
+    BookFacetsResponse all = index.facets(new BookFilterRequest());
+    assertThat(all.getCategories()).isEqualTo(Map.of(1L, 499L, 2L, 500L, 3L, 2L));
+    assertThat(all.getDecades()).isEqualTo(Map.of(1990, 499L, 2000, 500L, 2020, 2L));
+    assertThat(all.getAuthors()).containsEntry("New Author", 2L);
+
+    BookFilterRequest category = new BookFilterRequest();
+    category.setCategoryId(3L);
+    assertThat(index.facets(category).getCategories()).isEqualTo(Map.of(3L, 2L));
+    category.setCategoryId(2L);
+    category.setYearTo(1999);
+    assertThat(index.facets(category).getCategories()).isEqualTo(Map.of(2L, 250L));
+  }
+
+  @Test
+  @DisplayName("Filtered facets match the counts of the books satisfying all filter criteria")
+  void countsFilteredFacets() {
+    BookFacetIndex index = new BookFacetIndex(null, null);
+    Map<Long, BookEntity> books = new HashMap<>();
+    for (long id = 1; id <= 3000; id++) {
+      // Few authors with many books and many authors with few books
+      String author = id % 4 == 0 ? "Author " + id % 7 : "Author " + id % 500;
+      BookEntity book = book(id, id % 5 + 1, 1955 + (int) (id * 7 % 70), author);
+      book.setPublisher("Publisher " + id % 2);
+      books.put(id, book);
+      index.index(book);
+    }
+    // Removing two thirds of the books renumbers the remaining ones
+    for (long id = 1; id <= 3000; id++) {
+      if (id % 3 != 1) {
+        index.remove(id);
+        books.remove(id);
+      }
+    }
+    BookEntity moved = book(5, 2, 1999, "Author 3");
+    books.put(5L, moved);
+    index.index(moved);
+
+    List<BookFilterRequest> filters = new ArrayList<>();
+    for (Long categoryId : new Long[] {null, 2L, 9L}) {
+      for (String author : new String[] {null, "Author 3", "Author 499", "Nobody"}) {
+        for (String publisher : new String[] {null, "Publisher 1"}) {
+          for (Integer[] years : new Integer[][] {
+              {null, null}, {1963, null}, {null, 1987}, {1963, 1987}, {1971, 1972}}) {
+            BookFilterRequest filter = new BookFilterRequest();
+            filter.setCategoryId(categoryId);
+            filter.setAuthor(author);
+            filter.setPublisher(publisher);
+            filter.setYearFrom(years[0]);
+            filter.setYearTo(years[1]);
+            filters.add(filter);
+          }
+        }
+      }
+    }
+    for (BookFilterRequest filter : filters) {
+      List<BookEntity> matching = books.values().stream().filter(matches(filter)).toList();
+      BookFacetsResponse facets = index.facets(filter);
+      assertThat(facets.getCategories()).isEqualTo(count(matching, book -> book.getCategory().getId()));
+      assertThat(facets.getDecades()).isEqualTo(count(matching, book -> book.getPublishingYear() / 10 * 10));
+      Map<String, Long> topAuthors = count(matching, BookEntity::getAuthor).entrySet().stream()
+          .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+          .limit(10)
+          .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+      assertThat(facets.getAuthors()).containsExactlyEntriesOf(topAuthors);
+    }
+  }
+
+  private static Predicate<BookEntity> matches(BookFilterRequest filter) {
+    return book -> (filter.getCategoryId() == null || filter.getCategoryId().equals(book.getCategory().getId()))
+        && (filter.getYearFrom() == null || book.getPublishingYear() >= filter.getYearFrom())
+        && (filter.getYearTo() == null || book.getPublishingYear() <= filter.getYearTo())
+        && (filter.getAuthor() == null || filter.getAuthor().equals(book.getAuthor()))
+        && (filter.getPublisher() == null || filter.getPublisher().equals(book.getPublisher()));
+  }
+
+  private static <K> Map<K, Long> count(List<BookEntity> books, Function<BookEntity, K> key) {
+    return books.stream().collect(Collectors.groupingBy(key, Collectors.counting()));
+  }
+
+  private static BookEntity book(long id, long categoryId, int year, String author) {
+    CategoryEntity category = new CategoryEntity();
+    category.setId(categoryId);
+    BookEntity book = new BookEntity();
+    book.setId(id);
+    book.setTitle("Book " + id);
+    book.setAuthor(author);
+    book.setPublisher("Publisher");
+    book.setPublishingYear(year);
+    book.setCategory(category);
+    return book;
+  }
+}
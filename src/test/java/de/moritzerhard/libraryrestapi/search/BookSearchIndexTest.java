@@ -0,0 +1,133 @@
+package de.moritzerhard.libraryrestapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.search.BookSearchIndex.SearchHit;
+import de.moritzerhard.libraryrestapi.search.BookSearchIndex.SearchResults;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookSearchIndexTest {
+  private final BookSearchIndex index = new BookSearchIndex(null, null);
+
+  @Test
+  @DisplayName("Text is split into lower-case tokens of letters and digits")
+  void tokenizesLettersAndDigits() {
+    assertThat(BookSearchIndex.tokenize("The Hobbit, or There and Back-Again (2nd ed.)"))
+        .containsExactly("the", "hobbit", "or", "there", "and", "back", "again", "2nd", "ed");
+    assertThat(BookSearchIndex.tokenize("Über CAFÉ")).containsExactly("über", "café");
+    assertThat(BookSearchIndex.tokenize(" -- ")).isEmpty();
+    assertThat(BookSearchIndex.tokenize(null)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Books matching more and rarer terms rank first, shorter books before longer ones")
+  void ranksByBm25() {
+    index.index(book(1, "Dune", "Frank Herbert"));
+    index.index(book(2, "Dune Messiah", "Frank Herbert"));
+    index.index(book(3, "Children of Dune", "Frank Herbert"));
+    index.index(book(4, "Foundation", "Isaac Asimov"));
+
+    assertThat(bookIds(search(index, "DUNE messiah", null, 10))).containsExactly(2L, 1L, 3L);
+    assertThat(bookIds(search(index, "herbert", null, 2))).containsExactly(1L, 2L);
+    assertThat(search(index, "tolkien", null, 10)).isEmpty();
+    assertThat(search(index, "  ", null, 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Hits with equal scores are ordered by book id, and the cursor continues behind the last hit")
+  void pagesThroughTiesByBookId() {
+    for (long id : new long[] {7, 3, 9, 1, 5}) {
+      index.index(book(id, "Same Title", "Same Author"));
+    }
+    index.index(book(2, "Same Title Same Title", "Same Author"));
+
+    List<SearchHit> all = search(index, "title", null, 10);
+    assertThat(bookIds(all)).containsExactly(2L, 1L, 3L, 5L, 7L, 9L);
+
+    List<SearchHit> paged = new ArrayList<>();
+    List<SearchHit> page = search(index, "title", null, 4);
+    while (!page.isEmpty()) {
+      paged.addAll(page);
+      page = search(index, "title", page.getLast(), 4);
+    }
+    assertThat(paged).isEqualTo(all);
+  }
+
+  @Test
+  @DisplayName("Follow-up pages are ranked with the statistics of the first page while books are added")
+  void pagesWithPinnedRankingStats() {
+    index.index(book(1, "Alpha", null));
+    index.index(book(2, "Beta", null));
+    index.index(book(3, "Beta Gamma", null));
+
+    SearchResults first = index.search("alpha beta", null, null, 1);
+    assertThat(bookIds(first.getHits())).containsExactly(1L);
+    // Alpha becomes common, which with the current statistics would rank book 2 above the cursor and skip it
+    for (long id = 10; id < 15; id++) {
+      index.index(book(id, "Alpha Gamma Gamma Gamma Gamma Gamma", null));
+    }
+
+    SearchResults second = index.search("alpha beta", first.getHits().getLast(), first.getStats(), 10);
+    assertThat(bookIds(second.getHits())).containsExactly(2L, 10L, 11L, 12L, 13L, 14L, 3L);
+    assertThat(second.getStats()).isEqualTo(first.getStats());
+    assertThatThrownBy(() -> index.search("alpha", first.getHits().getLast(), first.getStats(), 10))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("Removed and replaced books no longer match their old terms")
+  void dropsRemovedAndReplacedBooks() {
+    index.index(book(1, "Dune", "Frank Herbert"));
+    index.index(book(2, "Dune Messiah", "Frank Herbert"));
+
+    index.remove(1);
+    index.index(book(2, "Foundation", "Isaac Asimov"));
+    index.remove(42);
+
+    assertThat(search(index, "dune herbert", null, 10)).isEmpty();
+    assertThat(bookIds(search(index, "foundation", null, 10))).containsExactly(2L);
+  }
+
+  @Test
+  @DisplayName("Scores are unchanged after removed books were purged and the rest renumbered")
+  void keepsScoresAfterCompaction() {
+    BookSearchIndex fresh = new BookSearchIndex(null, null);
+    for (long id = 1; id <= 3000; id++) {
+      BookEntity book = book(id, "Book " + (id % 7 == 0 ? "seven" : "other") + " " + id % 10, "Author " + id % 3);
+      index.index(book);
+      if (id > 2500) {
+        fresh.index(book);
+      }
+    }
+    for (long id = 1; id <= 2500; id++) {
+      index.remove(id);
+    }
+    index.index(book(3001, "Seven Seas", "Author 1"));
+    fresh.index(book(3001, "Seven Seas", "Author 1"));
+
+    List<SearchHit> hits = search(index, "seven author 1", null, 1000);
+    assertThat(hits).hasSize(501).isEqualTo(search(fresh, "seven author 1", null, 1000));
+    assertThat(hits).allSatisfy(hit -> assertThat(hit.getBookId()).isGreaterThan(2500L));
+  }
+
+  private static List<SearchHit> search(BookSearchIndex index, String query, SearchHit after, int limit) {
+    return index.search(query, after, null, limit).getHits();
+  }
+
+  private static List<Long> bookIds(List<SearchHit> hits) {
+    return hits.stream().map(SearchHit::getBookId).toList();
+  }
+
+  private static BookEntity book(long id, String title, String author) {
+    BookEntity book = new BookEntity();
+    book.setId(id);
+    book.setTitle(title);
+    book.setAuthor(author);
+    return book;
+  }
+}
@@ -0,0 +1,92 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.moritzerhard.libraryrestapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final CountDownLatch started = new CountDownLatch(1);
+  private BoundedPasswordEncoder encoder;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    encoder.close();
+  }
+
+  @Test
+  @DisplayName("Hashing runs on the pool and is timed")
+  void encodeRecordsLatency() {
+    encoder = new BoundedPasswordEncoder(new PlainEncoder(), 1, 1, Duration.ofSeconds(5), meterRegistry);
+    release.countDown();
+
+    assertThat(encoder.encode("secret")).isEqualTo("{plain}secret");
+    assertThat(encoder.matches("secret", "{plain}secret")).isTrue();
+    assertThat(meterRegistry.get("password.hashing").tag("operation", "encode").timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("password.hashing").tag("operation", "matches").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Requests beyond the queue capacity are rejected immediately")
+  void encodeRejectsWhenSaturated() throws Exception {
+    encoder = new BoundedPasswordEncoder(new PlainEncoder(), 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+    CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+    while (meterRegistry.get("password.hashing.queue.size").gauge().value() < 1) {
+      Thread.onSpinWait();
+    }
+
+    assertThatThrownBy(() -> encoder.encode("third"))
+        .isInstanceOf(ServiceUnavailableException.class)
+        .hasMessageContaining("Too many");
+
+    release.countDown();
+    assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("{plain}first");
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("{plain}second");
+  }
+
+  @Test
+  @DisplayName("Requests that do not get their hash within the timeout fail")
+  void encodeTimesOut() {
+    encoder = new BoundedPasswordEncoder(new PlainEncoder(), 1, 1, Duration.ofMillis(50), meterRegistry);
+
+    assertThatThrownBy(() -> encoder.encode("slow"))
+        .isInstanceOf(ServiceUnavailableException.class)
+        .hasMessageContaining("timed out");
+  }
+
+  /**
+   * Encoder that blocks until released, standing in for an expensive hash function.
+   */
+  private class PlainEncoder implements PasswordEncoder {
+    @Override
+    public String encode(CharSequence rawPassword) {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "{plain}" + rawPassword;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      return encode(rawPassword).equals(encodedPassword);
+    }
+  }
+}
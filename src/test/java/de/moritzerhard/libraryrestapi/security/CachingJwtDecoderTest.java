@@ -0,0 +1,144 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class CachingJwtDecoderTest {
+  private final TestTime time = new TestTime();
+  private final AtomicInteger decodes = new AtomicInteger();
+
+  @Test
+  @DisplayName("Repeated tokens are verified only once")
+  void decodeVerifiesRepeatedTokensOnce() {
+    JwtDecoder decoder =
+        new CachingJwtDecoder(countingDecoder(Duration.ofMinutes(10)), 100, Duration.ofHours(1), time, time);
+
+    Jwt first = decoder.decode("token");
+    Jwt second = decoder.decode("token");
+    decoder.decode("other-token");
+
+    assertThat(second).isSameAs(first);
+    assertThat(decodes).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Tokens are verified again once they expire")
+  void decodeEvictsTokensAtExpiry() {
+    JwtDecoder decoder =
+        new CachingJwtDecoder(countingDecoder(Duration.ofSeconds(10)), 100, Duration.ofHours(1), time, time);
+
+    decoder.decode("token");
+    time.advance(Duration.ofSeconds(11));
+    decoder.decode("token");
+
+    assertThat(decodes).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Tokens are cached only for the rest of their validity")
+  void decodeCachesTokensUntilTheirExpiry() {
+    Instant expiresAt = time.instant().plusSeconds(10);
+    JwtDecoder expiringDecoder = token -> {
+      decodes.incrementAndGet();
+      return Jwt.withTokenValue(token).header("alg", "HS256").subject("reader@example.com")
+          .expiresAt(expiresAt).build();
+    };
+    JwtDecoder decoder = new CachingJwtDecoder(expiringDecoder, 100, Duration.ofHours(1), time, time);
+
+    time.advance(Duration.ofSeconds(8));
+    decoder.decode("token");
+    time.advance(Duration.ofSeconds(1));
+    decoder.decode("token");
+    time.advance(Duration.ofSeconds(2));
+    decoder.decode("token");
+
+    assertThat(decodes).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Tokens are verified again after the maximum time to live")
+  void decodeEvictsTokensAfterMaxTtl() {
+    JwtDecoder decoder =
+        new CachingJwtDecoder(countingDecoder(Duration.ofHours(2)), 100, Duration.ofMinutes(5), time, time);
+
+    decoder.decode("token");
+    time.advance(Duration.ofMinutes(6));
+    decoder.decode("token");
+
+    assertThat(decodes).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Rejected tokens are not cached")
+  void decodeDoesNotCacheRejectedTokens() {
+    JwtDecoder rejecting = token -> {
+      decodes.incrementAndGet();
+      throw new BadJwtException("Invalid signature");
+    };
+    JwtDecoder decoder = new CachingJwtDecoder(rejecting, 100, Duration.ofHours(1), time, time);
+
+    assertThatThrownBy(() -> decoder.decode("token")).isInstanceOf(BadJwtException.class);
+    assertThatThrownBy(() -> decoder.decode("token")).isInstanceOf(BadJwtException.class);
+    assertThat(decodes).hasValue(2);
+  }
+
+  private JwtDecoder countingDecoder(Duration validity) {
+    return token -> {
+      decodes.incrementAndGet();
+      Instant now = time.instant();
+      return Jwt.withTokenValue(token)
+          .header("alg", "HS256")
+          .subject("reader@example.com")
+          .issuedAt(now)
+          .expiresAt(now.plus(validity))
+          .build();
+    };
+  }
+
+  /**
+   * Wall clock and cache ticker in one, advanced together by the tests.
+   */
+  private static final class TestTime extends Clock implements Ticker {
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    void advance(Duration duration) {
+      nanos.addAndGet(duration.toNanos());
+    }
+
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+
+    @Override
+    public Instant instant() {
+      return START.plusNanos(nanos.get());
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.moritzerhard.libraryrestapi.security.ConfigurablePasswordEncoder.Algorithm;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class ConfigurablePasswordEncoderTest {
+
+  @Test
+  @DisplayName("Hashes of every algorithm and cost verify after the configuration changed")
+  void matchesHashesOfOtherConfigurations() {
+    String legacy = new BCryptPasswordEncoder(4).encode("secret");
+    String bcrypt = new ConfigurablePasswordEncoder(Algorithm.BCRYPT, 5).encode("secret");
+    String pbkdf2 = new ConfigurablePasswordEncoder(Algorithm.PBKDF2, 1000).encode("secret");
+    ConfigurablePasswordEncoder encoder = new ConfigurablePasswordEncoder(Algorithm.PBKDF2, 2000);
+
+    assertThat(bcrypt).startsWith("{bcrypt}$2a$05$");
+    assertThat(pbkdf2).startsWith("{pbkdf2}1000$");
+    assertThat(encoder.matches("secret", legacy)).isTrue();
+    assertThat(encoder.matches("secret", bcrypt)).isTrue();
+    assertThat(encoder.matches("secret", pbkdf2)).isTrue();
+    assertThat(encoder.matches("wrong", pbkdf2)).isFalse();
+  }
+
+  @Test
+  @DisplayName("Hashes of another algorithm or with a lower cost than the configuration need an upgrade")
+  void upgradeEncodingDetectsWeakerParameters() {
+    ConfigurablePasswordEncoder encoder = new ConfigurablePasswordEncoder(Algorithm.BCRYPT, 5);
+
+    assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+    assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isFalse();
+    assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+    assertThat(encoder.upgradeEncoding(new ConfigurablePasswordEncoder(Algorithm.PBKDF2, 1000).encode("secret")))
+        .isTrue();
+  }
+
+  @Test
+  @DisplayName("Hashes with a higher cost than the configuration are never downgraded")
+  void upgradeEncodingKeepsStrongerHashes() {
+    ConfigurablePasswordEncoder bcrypt = new ConfigurablePasswordEncoder(Algorithm.BCRYPT, 4);
+    ConfigurablePasswordEncoder pbkdf2 = new ConfigurablePasswordEncoder(Algorithm.PBKDF2, 1000);
+
+    assertThat(bcrypt.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+    assertThat(bcrypt.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+    assertThat(pbkdf2.upgradeEncoding(new ConfigurablePasswordEncoder(Algorithm.PBKDF2, 2000).encode("secret")))
+        .isFalse();
+    assertThat(pbkdf2.upgradeEncoding(new ConfigurablePasswordEncoder(Algorithm.PBKDF2, 500).encode("secret")))
+        .isTrue();
+  }
+
+  @Test
+  @DisplayName("Calibration never goes below the minimum cost")
+  void calibratedRespectsMinimumCost() {
+    ConfigurablePasswordEncoder encoder = ConfigurablePasswordEncoder.calibrated(Algorithm.BCRYPT, 4,
+        Duration.ofMillis(1));
+
+    assertThat(encoder.getCost()).isEqualTo(4);
+    assertThat(encoder.matches("secret", encoder.encode("secret"))).isTrue();
+  }
+}
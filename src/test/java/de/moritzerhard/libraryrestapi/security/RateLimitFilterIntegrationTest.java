@@ -0,0 +1,88 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import de.moritzerhard.libraryrestapi.utils.JwtTestUtils;
+import de.moritzerhard.libraryrestapi.utils.RestConstants;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = "rate-limit.enabled=true")
+@AutoConfigureMockMvc
+@Transactional
+class RateLimitFilterIntegrationTest {
+  /**
+   * More requests than the book list rule in application.properties allows in a burst, even while its bucket refills.
+   */
+  private static final int MAX_ATTEMPTS = 100;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private JwtEncoder jwtEncoder;
+
+  @Test
+  @DisplayName("Clients exceeding the rate limit get 429 with Retry-After, other clients are unaffected")
+  void rejectsClientsOverTheLimit() throws Exception {
+    String address = randomAddress();
+    exhaust(bookList(address))
+        .andExpect(header().exists("Retry-After"))
+        .andExpect(jsonPath("$.error").value("Too many requests"));
+
+    mockMvc.perform(bookList(randomAddress())).andExpect(status().isOk());
+    mockMvc.perform(get(RestConstants.CATEGORIES).with(request -> {
+      request.setRemoteAddr(address);
+      return request;
+    })).andExpect(status().isOk());
+  }
+
+  @Test
+  @DisplayName("Authenticated clients are limited by token subject rather than by address")
+  void limitsAuthenticatedClientsBySubject() throws Exception {
+    String address = randomAddress();
+    String token = JwtTestUtils.generateBearerToken(jwtEncoder, address + "@example.com");
+    exhaust(bookList(address).header("Authorization", token));
+
+    mockMvc.perform(bookList(address)).andExpect(status().isOk());
+  }
+
+  /**
+   * Repeats the request until it is rejected by the rate limit.
+   */
+  private ResultActions exhaust(MockHttpServletRequestBuilder request) throws Exception {
+    for (int i = 0; i < MAX_ATTEMPTS; i++) {
+      ResultActions result = mockMvc.perform(request);
+      if (result.andReturn().getResponse().getStatus() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+        return result;
+      }
+      result.andExpect(status().isOk());
+    }
+    throw new AssertionError("Request was not rate limited after " + MAX_ATTEMPTS + " attempts");
+  }
+
+  private static MockHttpServletRequestBuilder bookList(String address) {
+    return get(RestConstants.BOOKS).with(request -> {
+      request.setRemoteAddr(address);
+      return request;
+    });
+  }
+
+  private static String randomAddress() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(1, 255);
+  }
+}
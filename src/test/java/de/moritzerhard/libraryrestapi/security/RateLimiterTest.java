@@ -0,0 +1,60 @@
+package de.moritzerhard.libraryrestapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+  private final AtomicLong nanos = new AtomicLong();
+  private final Ticker ticker = nanos::get;
+
+  @Test
+  @DisplayName("A client may send a burst up to the capacity, then at the refill rate")
+  void allowsBurstThenRefillRate() {
+    RateLimiter limiter = new RateLimiter(3, 2, 100, ticker);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(limiter.tryAcquire("client")).isZero();
+    }
+    assertThat(limiter.tryAcquire("client")).isEqualTo(Duration.ofMillis(500));
+
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+    assertThat(limiter.tryAcquire("client")).isZero();
+    assertThat(limiter.tryAcquire("client")).isEqualTo(Duration.ofMillis(500));
+  }
+
+  @Test
+  @DisplayName("Rejected requests do not consume tokens")
+  void rejectionsDoNotConsumeTokens() {
+    RateLimiter limiter = new RateLimiter(1, 1, 100, ticker);
+
+    limiter.tryAcquire("client");
+    for (int i = 0; i < 10; i++) {
+      assertThat(limiter.tryAcquire("client")).isPositive();
+    }
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(limiter.tryAcquire("client")).isZero();
+  }
+
+  @Test
+  @DisplayName("Clients have separate buckets, which fill up again while idle")
+  void separatesClientsAndRefillsWhileIdle() {
+    RateLimiter limiter = new RateLimiter(2, 1, 100, ticker);
+
+    limiter.tryAcquire("client");
+    limiter.tryAcquire("client");
+    assertThat(limiter.tryAcquire("client")).isPositive();
+    assertThat(limiter.tryAcquire("other")).isZero();
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+    assertThat(limiter.tryAcquire("client")).isZero();
+    assertThat(limiter.tryAcquire("client")).isZero();
+    assertThat(limiter.tryAcquire("client")).isPositive();
+  }
+}
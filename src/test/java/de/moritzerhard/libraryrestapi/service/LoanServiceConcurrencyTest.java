@@ -0,0 +1,200 @@
+package de.moritzerhard.libraryrestapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.moritzerhard.libraryrestapi.dto.request.LoanRequest;
+import de.moritzerhard.libraryrestapi.dto.response.LoanResponse;
+import de.moritzerhard.libraryrestapi.entity.BookEntity;
+import de.moritzerhard.libraryrestapi.entity.CategoryEntity;
+import de.moritzerhard.libraryrestapi.entity.CustomerEntity;
+import de.moritzerhard.libraryrestapi.exception.ConflictException;
+import de.moritzerhard.libraryrestapi.repository.BookRepository;
+import de.moritzerhard.libraryrestapi.repository.CategoryRepository;
+import de.moritzerhard.libraryrestapi.repository.CustomerRepository;
+import de.moritzerhard.libraryrestapi.repository.LoanRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs thousands of simultaneous checkouts and returns against committed data, without a test transaction,
+ * so every call commits on its own like a request.
+ */
+@SpringBootTest
+class LoanServiceConcurrencyTest {
+  private static final int COPIES = 50;
+  private static final int CHECKOUTS = 2_000;
+  private static final int THREADS = 32;
+
+  @Autowired
+  private LoanService loanService;
+
+  @Autowired
+  private BookRepository bookRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private CustomerRepository customerRepository;
+
+  @Autowired
+  private LoanRepository loanRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private Long categoryId;
+  private Long bookId;
+  private Long customerId;
+  private String customerEmail;
+
+  @BeforeEach
+  void setUp() {
+    transactionTemplate.executeWithoutResult(status -> {
+      CategoryEntity category = new CategoryEntity();
+      category.setName("New Releases " + UUID.randomUUID());
+      categoryId = categoryRepository.save(category).getId();
+
+      BookEntity book = new BookEntity();
+      book.setTitle("Release Day");
+      book.setAuthor("Famous Author");
+      book.setCopies(COPIES);
+      book.setAvailableCopies(COPIES);
+      book.setCategory(category);
+      bookId = bookRepository.save(book).getId();
+
+      CustomerEntity customer = new CustomerEntity();
+      customer.setName("Eager Reader");
+      customer.setEmail("reader-" + UUID.randomUUID() + "@example.com");
+      customer.setPassword("unused");
+      customerId = customerRepository.save(customer).getId();
+      customerEmail = customer.getEmail();
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    // Books and their loans are deleted together with the category
+    transactionTemplate.executeWithoutResult(status -> {
+      categoryRepository.deleteById(categoryId);
+      customerRepository.deleteById(customerId);
+    });
+  }
+
+  @Test
+  @DisplayName("Simultaneous checkouts never take more copies than there are")
+  void checkoutsDoNotOversell() throws Exception {
+    LoanRequest request = new LoanRequest();
+    request.setBookId(bookId);
+    AtomicInteger conflicts = new AtomicInteger();
+
+    List<LoanResponse> loans = runConcurrently(CHECKOUTS, () -> {
+      try {
+        return loanService.checkout(request, customerEmail);
+      } catch (ConflictException e) {
+        conflicts.incrementAndGet();
+        return null;
+      }
+    });
+
+    assertThat(loans).hasSize(COPIES);
+    assertThat(conflicts).hasValue(CHECKOUTS - COPIES);
+    assertThat(bookRepository.findById(bookId).orElseThrow().getAvailableCopies()).isZero();
+    assertThat(loanRepository.countByBookIdAndReturnedAtIsNull(bookId)).isEqualTo(COPIES);
+  }
+
+  @Test
+  @DisplayName("Simultaneous returns of the same loans put back each copy once")
+  void returnsDoNotDuplicateCopies() throws Exception {
+    LoanRequest request = new LoanRequest();
+    request.setBookId(bookId);
+    List<Long> loanIds = new ArrayList<>();
+    for (int i = 0; i < COPIES; i++) {
+      loanIds.add(loanService.checkout(request, customerEmail).getId());
+    }
+
+    // Every loan is returned by several callers at once, while others keep trying to check out
+    Map<Long, AtomicInteger> returns = new ConcurrentHashMap<>();
+    AtomicInteger next = new AtomicInteger();
+    List<LoanResponse> outcomes = runConcurrently(CHECKOUTS, () -> {
+      int call = next.getAndIncrement();
+      try {
+        if (call % 2 == 0) {
+          return loanService.checkout(request, customerEmail);
+        }
+        Long loanId = loanIds.get(call / 2 % COPIES);
+        LoanResponse returned = loanService.returnLoan(loanId, customerEmail);
+        returns.computeIfAbsent(loanId, id -> new AtomicInteger()).incrementAndGet();
+        return returned;
+      } catch (ConflictException | OptimisticLockingFailureException e) {
+        return null;
+      }
+    });
+
+    assertThat(returns).hasSize(COPIES).allSatisfy((loanId, count) -> assertThat(count).hasValue(1));
+    long onLoan = loanRepository.countByBookIdAndReturnedAtIsNull(bookId);
+    int checkedOut = outcomes.size() - COPIES;
+    assertThat(onLoan).isEqualTo(checkedOut);
+    assertThat(bookRepository.findById(bookId).orElseThrow().getAvailableCopies()).isEqualTo(COPIES - checkedOut);
+  }
+
+  @Test
+  @DisplayName("A return that finds all copies on the shelf fails and leaves the loan open")
+  void returnWithoutCopyOnLoanRollsBack() {
+    LoanRequest request = new LoanRequest();
+    request.setBookId(bookId);
+    Long loanId = loanService.checkout(request, customerEmail).getId();
+    // Corrupt the counts, as if the copy had been put back without ending the loan
+    transactionTemplate.executeWithoutResult(status -> bookRepository.returnCopy(bookId));
+
+    assertThatThrownBy(() -> loanService.returnLoan(loanId, customerEmail))
+        .isInstanceOf(ConflictException.class);
+
+    assertThat(loanRepository.findById(loanId).orElseThrow().getReturnedAt()).isNull();
+    assertThat(bookRepository.findById(bookId).orElseThrow().getAvailableCopies()).isEqualTo(COPIES);
+  }
+
+  /**
+   * Runs the task the given number of times on a thread pool, all released at once, and returns the
+   * non-null results.
+   */
+  private static <T> List<T> runConcurrently(int times, Callable<T> task) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+      List<Future<T>> futures = new ArrayList<>();
+      for (int i = 0; i < times; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return task.call();
+        }));
+      }
+      start.countDown();
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        T result = future.get();
+        if (result != null) {
+          results.add(result);
+        }
+      }
+      return results;
+    }
+  }
+}
@@ -0,0 +1,255 @@
+package de.moritzerhard.libraryrestapi.smoke;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import de.moritzerhard.libraryrestapi.dto.request.BookRequest;
+import de.moritzerhard.libraryrestapi.dto.request.CategoryRequest;
+import de.moritzerhard.libraryrestapi.dto.request.CustomerRequest;
+import de.moritzerhard.libraryrestapi.dto.request.LoginRequest;
+import de.moritzerhard.libraryrestapi.utils.JwtTestUtils;
+import de.moritzerhard.libraryrestapi.utils.RestConstants;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * Starts the application as a separate process, e.g. the native executable built with {@code mvn -Pnative package},
+ * and runs the main scenarios of the integration tests against it over HTTP. Reports the time from launch to the
+ * first successful request and the resident set size (RSS) after startup and at its peak.
+ * Disabled by default; run with
+ * {@code mvn test -Dtest=NativeImageSmokeTest -Dsmoke.command=target/libraryrestapi}. The command may also start
+ * the JVM build for comparison, e.g. {@code -Dsmoke.command="java -jar target/libraryrestapi-0.0.1-SNAPSHOT.jar"}.
+ */
+@EnabledIfSystemProperty(named = "smoke.command", matches = ".+")
+class NativeImageSmokeTest {
+  private static final Duration STARTUP_TIMEOUT =
+      Duration.ofSeconds(Long.getLong("smoke.startup-timeout-seconds", 120));
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static Process process;
+  private static HttpClient client;
+  private static URI baseUri;
+  private static URI managementUri;
+  private static String bearerToken;
+
+  @BeforeAll
+  static void startApplication() throws Exception {
+    int port = freePort();
+    int managementPort = freePort();
+    baseUri = URI.create("http://localhost:" + port);
+    managementUri = URI.create("http://localhost:" + managementPort);
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    bearerToken = JwtTestUtils.generateBearerToken(new NimbusJwtEncoder(new ImmutableSecret<>(
+        new SecretKeySpec(Base64.getDecoder().decode(jwtSecret()), "HmacSHA256"))), "user@example.com");
+
+    List<String> command = new ArrayList<>(List.of(System.getProperty("smoke.command").trim().split("\\s+")));
+    command.add("--server.port=" + port);
+    command.add("--management.server.port=" + managementPort);
+    Path log = Files.createDirectories(Path.of("target", "smoke")).resolve("application.log");
+    long start = System.nanoTime();
+    process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+    awaitFirstSuccessfulRequest();
+    long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    System.out.printf("Startup: %d ms to the first successful request, RSS %s (log: %s)%n",
+        startupMillis, memory("VmRSS"), log);
+  }
+
+  @AfterAll
+  static void stopApplication() throws Exception {
+    if (process == null) {
+      return;
+    }
+    System.out.printf("After the scenarios: RSS %s, peak RSS %s%n", memory("VmRSS"), memory("VmHWM"));
+    process.destroy();
+    if (!process.waitFor(30, TimeUnit.SECONDS)) {
+      process.destroyForcibly();
+    }
+  }
+
+  @Test
+  @DisplayName("Catalog and search are public, the health check only on the management port")
+  void publicEndpoints() throws Exception {
+    assertThat(send("GET", RestConstants.CATEGORIES, null, false).statusCode()).isEqualTo(200);
+    assertThat(send("GET", RestConstants.BOOKS, null, false).statusCode()).isEqualTo(200);
+    assertThat(send("GET", RestConstants.BOOKS + "/search?q=library", null, false).statusCode()).isEqualTo(200);
+    assertThat(send("GET", "/actuator/prometheus", null, false).statusCode()).isEqualTo(401);
+    HttpRequest health = HttpRequest.newBuilder(managementUri.resolve("/actuator/health")).build();
+    assertThat(client.send(health, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+  }
+
+  @Test
+  @DisplayName("Writes require authentication and invalid queries are rejected")
+  void rejectsUnauthenticatedWritesAndInvalidQueries() throws Exception {
+    CategoryRequest category = new CategoryRequest();
+    category.setName("Unauthenticated");
+    assertThat(send("POST", RestConstants.CATEGORIES, category, false).statusCode()).isEqualTo(401);
+    assertThat(send("GET", RestConstants.BOOKS + "/search?q=%20", null, false).statusCode()).isEqualTo(400);
+  }
+
+  @Test
+  @DisplayName("Categories and books can be created, searched, cached by ETag, updated and deleted")
+  void categoryAndBookLifecycle() throws Exception {
+    CategoryRequest category = new CategoryRequest();
+    category.setName("Smoke " + UUID.randomUUID());
+    HttpResponse<String> created = send("POST", RestConstants.CATEGORIES, category, true);
+    assertThat(created.statusCode()).isEqualTo(201);
+    long categoryId = JsonPath.<Number>read(created.body(), "$.id").longValue();
+
+    String categoryPath = RestConstants.CATEGORIES + "/" + categoryId;
+    HttpResponse<String> fetched = send("GET", categoryPath, null, false);
+    assertThat(fetched.statusCode()).isEqualTo(200);
+    String eTag = fetched.headers().firstValue("ETag").orElseThrow();
+    assertThat(send("GET", categoryPath, null, false, "If-None-Match", eTag).statusCode()).isEqualTo(304);
+
+    BookRequest book = new BookRequest();
+    book.setTitle("Quokka Field Guide");
+    book.setAuthor("Smoke Tester");
+    book.setPublishingYear(2024);
+    book.setCategoryId(categoryId);
+    HttpResponse<String> createdBook = send("POST", RestConstants.BOOKS, book, true);
+    assertThat(createdBook.statusCode()).isEqualTo(201);
+    long bookId = JsonPath.<Number>read(createdBook.body(), "$.id").longValue();
+    assertThat(JsonPath.<String>read(createdBook.body(), "$.categoryName")).isEqualTo(category.getName());
+
+    HttpResponse<String> search = send("GET", RestConstants.BOOKS + "/search?q=quokka", null, false);
+    assertThat(JsonPath.<List<Number>>read(search.body(), "$.items[*].id"))
+        .extracting(Number::longValue).contains(bookId);
+
+    String bookPath = RestConstants.BOOKS + "/" + bookId;
+    book.setTitle("Wombat Field Guide");
+    HttpResponse<String> updated = send("PUT", bookPath, book, true);
+    assertThat(updated.statusCode()).isEqualTo(200);
+    assertThat(JsonPath.<String>read(updated.body(), "$.title")).isEqualTo("Wombat Field Guide");
+
+    assertThat(send("DELETE", bookPath, null, true).statusCode()).isEqualTo(204);
+    assertThat(send("GET", bookPath, null, false).statusCode()).isEqualTo(404);
+    assertThat(send("DELETE", categoryPath, null, true).statusCode()).isEqualTo(204);
+  }
+
+  @Test
+  @DisplayName("A new customer can log in and use the issued token")
+  void customerLogin() throws Exception {
+    CustomerRequest customer = new CustomerRequest();
+    customer.setName("Smoke Tester");
+    customer.setEmail("smoke-" + UUID.randomUUID() + "@example.com");
+    customer.setPassword("smoke-password");
+    HttpResponse<String> created = send("POST", RestConstants.CUSTOMERS, customer, true);
+    assertThat(created.statusCode()).isEqualTo(201);
+    long customerId = JsonPath.<Number>read(created.body(), "$.id").longValue();
+
+    LoginRequest login = new LoginRequest();
+    login.setEmail(customer.getEmail());
+    login.setPassword(customer.getPassword());
+    HttpResponse<String> loggedIn = send("POST", RestConstants.AUTH + "/login", login, false);
+    assertThat(loggedIn.statusCode()).isEqualTo(200);
+    String token = JsonPath.read(loggedIn.body(), "$.token");
+
+    HttpRequest fetch = HttpRequest.newBuilder(baseUri.resolve(RestConstants.CUSTOMERS + "/" + customerId))
+        .header("Authorization", "Bearer " + token)
+        .build();
+    assertThat(client.send(fetch, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+
+    login.setPassword("wrong-password");
+    assertThat(send("POST", RestConstants.AUTH + "/login", login, false).statusCode()).isEqualTo(401);
+  }
+
+  private static HttpResponse<String> send(String method, String path, Object body, boolean authenticated,
+                                           String... headers) throws IOException, InterruptedException {
+    HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+        .method(method, body == null
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofString(OBJECT_MAPPER.writeValueAsString(body)));
+    if (body != null) {
+      request.header("Content-Type", "application/json");
+    }
+    if (authenticated) {
+      request.header("Authorization", bearerToken);
+    }
+    if (headers.length > 0) {
+      request.headers(headers);
+    }
+    return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static void awaitFirstSuccessfulRequest() throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(RestConstants.CATEGORIES)).build();
+    long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+    while (System.nanoTime() - deadline < 0) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException("Application exited with code " + process.exitValue());
+      }
+      try {
+        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+          return;
+        }
+      } catch (ConnectException e) {
+        // not listening yet
+      }
+      Thread.sleep(10);
+    }
+    throw new IllegalStateException("Application did not serve a request within " + STARTUP_TIMEOUT);
+  }
+
+  /**
+   * Reads a memory figure of the application process from {@code /proc}, e.g. {@code VmRSS} or its peak
+   * {@code VmHWM}. Only available on Linux.
+   */
+  private static String memory(String field) throws IOException {
+    Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+    if (!Files.exists(status)) {
+      return "n/a";
+    }
+    return Files.readAllLines(status).stream()
+        .filter(line -> line.startsWith(field + ":"))
+        .map(line -> Long.parseLong(line.replaceAll("\\D", "")) / 1024 + " MB")
+        .findFirst()
+        .orElse("n/a");
+  }
+
+  /**
+   * The signing secret of the application under test, {@code smoke.jwt-secret} or else the default from
+   * {@code application.properties}.
+   */
+  private static String jwtSecret() throws IOException {
+    String secret = System.getProperty("smoke.jwt-secret");
+    if (secret != null) {
+      return secret;
+    }
+    Properties properties = new Properties();
+    try (InputStream in = NativeImageSmokeTest.class.getResourceAsStream("/application.properties")) {
+      properties.load(in);
+    }
+    return properties.getProperty("jwt.secret");
+  }
+}